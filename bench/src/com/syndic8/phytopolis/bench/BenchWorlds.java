@@ -0,0 +1,90 @@
+package com.syndic8.phytopolis.bench;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.syndic8.phytopolis.GameplayMode;
+import com.syndic8.phytopolis.HeadlessSimulation;
+import com.syndic8.phytopolis.WorldController;
+import com.syndic8.phytopolis.level.PlantController;
+import com.syndic8.phytopolis.level.ResourceController;
+import com.syndic8.phytopolis.level.models.Leaf;
+
+import java.io.File;
+
+/**
+ * Shared fixtures for the benchmarks.
+ * <p>
+ * Levels are loaded headless from the assets folder, which is the working
+ * directory of the jmh task (override with -Dphytopolis.assets).
+ */
+final class BenchWorlds {
+
+    /**
+     * The assets root, containing assets.json.
+     */
+    static final FileHandle ASSETS = new FileHandle(new File(System.getProperty(
+            "phytopolis.assets",
+            ".")));
+
+    private BenchWorlds() {
+    }
+
+    /**
+     * Loads the given level into a headless simulation.
+     *
+     * @param level the level key, e.g. "gameplay:lvl1".
+     * @return the simulation, reset to the start of the level
+     */
+    static HeadlessSimulation load(String level) {
+        return new HeadlessSimulation(ASSETS, level);
+    }
+
+    /**
+     * Grows a straight trunk up every base column of the plant, as high as
+     * the level allows, with a leaf on every other node.
+     *
+     * @param world the world to grow in.
+     * @return the number of branches grown
+     */
+    static int growTrunks(GameplayMode world) {
+        PlantController pc = world.getPlantController();
+        ResourceController rc = world.getResourceController();
+        float branchLength = world.getTilemap().getTileHeight();
+        int grown = 0;
+        for (int x = 0; x < pc.getWidth(); x += 2) {
+            for (int y = 0; y < pc.getHeight() - 1; y++) {
+                Vector2 node = pc.indexToWorldCoord(x, y);
+                float nodeX = node.x;
+                float nodeY = node.y;
+                rc.pickupWater();
+                if (pc.growBranch(nodeX, nodeY + 0.25f * branchLength) ==
+                        null) break;
+                grown++;
+                if (y % 2 == 1) {
+                    rc.pickupWater();
+                    pc.growLeaf(nodeX,
+                                nodeY + 0.1f * branchLength,
+                                Leaf.leafType.NORMAL,
+                                1.4f);
+                }
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * A world with nothing but bounds, for measuring WorldController itself.
+     */
+    static class EmptyWorld extends WorldController {
+
+        EmptyWorld(float width, float height) {
+            setBounds(width, height);
+        }
+
+        @Override
+        public void update(float dt) {
+        }
+
+    }
+
+}
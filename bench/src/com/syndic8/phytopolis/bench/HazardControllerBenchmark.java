@@ -0,0 +1,57 @@
+package com.syndic8.phytopolis.bench;
+
+import com.syndic8.phytopolis.HeadlessSimulation;
+import com.syndic8.phytopolis.level.HazardController;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for hazard spawning and spreading on a grown plant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HazardControllerBenchmark {
+
+    // Levels with both powerlines and bug zones
+    @Param({"gameplay:lvl7", "gameplay:lvl10", "gameplay:lvl12"})
+    public String level;
+
+    private HeadlessSimulation sim;
+    private HazardController hc;
+
+    @Setup(Level.Trial)
+    public void loadLevel() {
+        sim = BenchWorlds.load(level);
+    }
+
+    @Setup(Level.Iteration)
+    public void grow() {
+        sim.reset();
+        BenchWorlds.growTrunks(sim.getWorld());
+        hc = sim.getWorld().getHazardController();
+    }
+
+    @Benchmark
+    public int updateHazards() {
+        return hc.updateHazards(HeadlessSimulation.DEFAULT_DT).size();
+    }
+
+    @Benchmark
+    public boolean hasValidFireLocs() {
+        return hc.hasValidFireLocs();
+    }
+
+    @Benchmark
+    public void hasValidLeafLocs(Blackhole bh) {
+        for (HazardController.BugZone zone : hc.getBugZones()) {
+            bh.consume(zone.hasValidLeafLocs());
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.syndic8.phytopolis.bench;
+
+import com.syndic8.phytopolis.GameplayMode;
+import com.syndic8.phytopolis.HeadlessSimulation;
+import com.syndic8.phytopolis.level.PlantController;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the plant grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlantControllerBenchmark {
+
+    @Param({"gameplay:lvl1", "gameplay:lvl6", "gameplay:lvl12"})
+    public String level;
+
+    private HeadlessSimulation sim;
+    private GameplayMode world;
+    private PlantController pc;
+
+    @Setup(Level.Trial)
+    public void loadLevel() {
+        sim = BenchWorlds.load(level);
+        world = sim.getWorld();
+        pc = world.getPlantController();
+    }
+
+    /**
+     * Fresh level with a full set of trunks.
+     */
+    @State(Scope.Thread)
+    public static class Grown {
+
+        @Setup(Level.Trial)
+        public void grow(PlantControllerBenchmark b) {
+            b.sim.reset();
+            BenchWorlds.growTrunks(b.world);
+        }
+
+    }
+
+    /**
+     * Fresh level, regrown before every call.
+     */
+    @State(Scope.Thread)
+    public static class Regrown {
+
+        @Setup(Level.Invocation)
+        public void grow(PlantControllerBenchmark b) {
+            b.sim.reset();
+            BenchWorlds.growTrunks(b.world);
+            for (int x = 0; x < b.pc.getWidth(); x += 2) {
+                b.pc.scheduleDestruction(x, 0);
+            }
+        }
+
+    }
+
+    /**
+     * Empty level, reset before every call.
+     */
+    @State(Scope.Thread)
+    public static class Empty {
+
+        @Setup(Level.Invocation)
+        public void clear(PlantControllerBenchmark b) {
+            b.sim.reset();
+        }
+
+    }
+
+    @Benchmark
+    public int growBranch(Empty empty) {
+        return BenchWorlds.growTrunks(world);
+    }
+
+    @Benchmark
+    public void canGrowAtIndex(Grown grown, Blackhole bh) {
+        for (int x = 0; x < pc.getWidth(); x++) {
+            for (int y = 0; y < pc.getHeight(); y++) {
+                bh.consume(pc.canGrowAtIndex(x, y));
+            }
+        }
+    }
+
+    @Benchmark
+    public void propagateDestruction(Regrown regrown, Blackhole bh) {
+        // One wave per row is enough to bring the whole plant down
+        for (int y = 0; y < pc.getHeight(); y++) {
+            bh.consume(pc.propagateDestruction(1f));
+        }
+    }
+
+    @Benchmark
+    public float getMaxPlantHeight(Grown grown) {
+        return pc.getMaxPlantHeight();
+    }
+
+}
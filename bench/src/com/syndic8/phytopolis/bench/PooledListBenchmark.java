@@ -0,0 +1,90 @@
+package com.syndic8.phytopolis.bench;
+
+import com.syndic8.phytopolis.util.PooledList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the access patterns the controllers use on PooledList.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledListBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private PooledList<Float> list;
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        list = new PooledList<>();
+        for (int i = 0; i < size; i++) {
+            list.add((float) i);
+        }
+    }
+
+    @Benchmark
+    public int addThenPoll() {
+        PooledList<Float> queue = new PooledList<>();
+        for (int i = 0; i < size; i++) {
+            queue.add((float) i);
+        }
+        int polled = 0;
+        while (!queue.isEmpty()) {
+            queue.poll();
+            polled++;
+        }
+        return polled;
+    }
+
+    @Benchmark
+    public float iterate() {
+        float sum = 0;
+        for (float f : list) {
+            sum += f;
+        }
+        return sum;
+    }
+
+    /**
+     * Random access, as in sampling a valid fire or bug location.
+     */
+    @Benchmark
+    public void indexedGet(Blackhole bh) {
+        for (int i = 0; i < size; i += 7) {
+            bh.consume(list.get(i));
+        }
+    }
+
+    /**
+     * Linear search, as in deduplicating the tilemap hazard rows.
+     */
+    @Benchmark
+    public boolean contains() {
+        return list.contains((float) size);
+    }
+
+    /**
+     * In-place removal, as in the WorldController garbage collection pass.
+     */
+    @Benchmark
+    public int entryIteratorRemove() {
+        Iterator<PooledList<Float>.Entry> iterator = list.entryIterator();
+        boolean remove = false;
+        while (iterator.hasNext()) {
+            PooledList<Float>.Entry entry = iterator.next();
+            if (remove) entry.remove();
+            remove = !remove;
+        }
+        return list.size();
+    }
+
+}
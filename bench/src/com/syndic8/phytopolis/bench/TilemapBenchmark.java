@@ -0,0 +1,59 @@
+package com.syndic8.phytopolis.bench;
+
+import com.syndic8.phytopolis.HeadlessSimulation;
+import com.syndic8.phytopolis.util.Tilemap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for populating the bundled levels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TilemapBenchmark {
+
+    @Param({"gameplay:lvl1",
+            "gameplay:lvl2",
+            "gameplay:lvl3",
+            "gameplay:lvl4",
+            "gameplay:lvl5",
+            "gameplay:lvl6",
+            "gameplay:lvl7",
+            "gameplay:lvl8",
+            "gameplay:lvl9",
+            "gameplay:lvl10",
+            "gameplay:lvl11",
+            "gameplay:lvl12"})
+    public String level;
+
+    private Tilemap tilemap;
+    private BenchWorlds.EmptyWorld world;
+
+    @Setup(Level.Trial)
+    public void loadLevel() {
+        tilemap = HeadlessSimulation.loadTilemap(BenchWorlds.ASSETS, level);
+    }
+
+    @Setup(Level.Invocation)
+    public void makeWorld() {
+        world = new BenchWorlds.EmptyWorld(tilemap.getWorldWidth(),
+                                           tilemap.getWorldHeight());
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeWorld() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public Tilemap populateLevel() {
+        tilemap.populateLevel(world);
+        return tilemap;
+    }
+
+}
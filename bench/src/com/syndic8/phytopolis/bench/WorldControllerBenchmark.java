@@ -0,0 +1,80 @@
+package com.syndic8.phytopolis.bench;
+
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.syndic8.phytopolis.level.models.Indicator;
+import com.syndic8.phytopolis.level.models.PolygonObject;
+import com.syndic8.phytopolis.util.Tilemap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for adding objects to a world.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldControllerBenchmark {
+
+    private static final float WIDTH = 16f;
+    private static final float HEIGHT = 64f;
+
+    @Param({"64", "512"})
+    public int count;
+
+    private BenchWorlds.EmptyWorld world;
+    private Tilemap.TilemapParams params;
+
+    @Setup(Level.Trial)
+    public void makeParams() {
+        params = new Tilemap.TilemapParams(1, 1, WIDTH, HEIGHT, WIDTH, HEIGHT);
+    }
+
+    @Setup(Level.Invocation)
+    public void makeWorld() {
+        world = new BenchWorlds.EmptyWorld(WIDTH, HEIGHT);
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeWorld() {
+        world.dispose();
+    }
+
+    /**
+     * Objects without a body, such as indicators.
+     */
+    @Benchmark
+    public void addModels() {
+        for (int i = 0; i < count; i++) {
+            world.addObject(new Indicator(i % WIDTH,
+                                          i % HEIGHT,
+                                          null,
+                                          params));
+        }
+    }
+
+    /**
+     * Static colliders, such as tiles.
+     */
+    @Benchmark
+    public void addGameObjects() {
+        for (int i = 0; i < count; i++) {
+            float x = i % WIDTH;
+            float y = (float) i * WIDTH / count;
+            PolygonObject obj = new PolygonObject(new float[]{x,
+                    y,
+                    x,
+                    y + 0.5f,
+                    x + 0.5f,
+                    y + 0.5f,
+                    x + 0.5f,
+                    y}, 0, 0, params, 1);
+            obj.setBodyType(BodyDef.BodyType.StaticBody);
+            world.addObject(obj);
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.syndic8.phytopolis;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.LongArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs many headless simulations in parallel and aggregates their results.
+ * <p>
+ * Every run gets its own HeadlessSimulation, and with it its own Box2D
+ * world, controllers, input and sound, so runs share no mutable state and
+ * are spread over a fork-join pool. A run is reproducible from its level,
+ * seed and script alone, whatever thread it lands on.
+ */
+public class BatchSimulation {
+
+    /**
+     * The assets root, containing assets.json.
+     */
+    private final FileHandle assets;
+    /**
+     * Number of runs simulated at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates a batch simulator.
+     *
+     * @param assets      the assets root, containing assets.json.
+     * @param parallelism the number of worker threads.
+     */
+    public BatchSimulation(FileHandle assets, int parallelism) {
+        this.assets = assets;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Simulates all the given runs and waits for them to finish.
+     *
+     * @param runs the runs to simulate.
+     * @return the results of every run, in the order given
+     */
+    public Report run(List<Run> runs) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Result>> tasks = new ArrayList<>(runs.size());
+            for (Run run : runs) {
+                tasks.add(pool.submit(() -> simulate(run)));
+            }
+            List<Result> results = new ArrayList<>(runs.size());
+            for (ForkJoinTask<Result> task : tasks) {
+                results.add(task.join());
+            }
+            return new Report(results, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Simulates a single run on the calling thread.
+     *
+     * @param run the run to simulate.
+     * @return the result of the run
+     */
+    public Result simulate(Run run) {
+        HeadlessSimulation sim = new HeadlessSimulation(assets, run.level);
+        GameplayMode world = sim.getWorld();
+        world.setSeed(run.seed);
+        sim.reset();
+        HeadlessSimulation.Script script = run.scripts == null ?
+                null :
+                run.scripts.create(run.seed);
+        LongArray tickNanos = new LongArray();
+        while (sim.getTicks() < run.maxTicks &&
+                sim.getOutcome() == HeadlessSimulation.Outcome.TIMEOUT) {
+            if (script != null) script.apply(sim.getTicks(), world, sim.getInput());
+            long tickStart = System.nanoTime();
+            sim.step(HeadlessSimulation.DEFAULT_DT);
+            tickNanos.add(System.nanoTime() - tickStart);
+        }
+        tickNanos.sort();
+        return new Result(run,
+                          sim.getOutcome(),
+                          sim.getTicks(),
+                          sim.getSimulatedTime(),
+                          world.getHazardController().getFiresStarted(),
+                          world.getResourceController().getWaterUsed(),
+                          tickNanos.toArray());
+    }
+
+    /**
+     * Creates a fresh script for each run.
+     */
+    public interface ScriptFactory {
+
+        /**
+         * @param seed the seed of the run.
+         * @return a new script for a run with the given seed.
+         */
+        HeadlessSimulation.Script create(long seed);
+
+    }
+
+    /**
+     * A level to simulate, with its seed and input.
+     */
+    public static class Run {
+
+        public final String level;
+        public final long seed;
+        public final int maxTicks;
+        /**
+         * Creates the input script, or null for no input.
+         */
+        public final ScriptFactory scripts;
+
+        public Run(String level, long seed, int maxTicks, ScriptFactory scripts) {
+            this.level = level;
+            this.seed = seed;
+            this.maxTicks = maxTicks;
+            this.scripts = scripts;
+        }
+
+    }
+
+    /**
+     * How a single run went.
+     */
+    public static class Result {
+
+        public final Run run;
+        public final HeadlessSimulation.Outcome outcome;
+        public final int ticks;
+        /**
+         * Simulated seconds until the run ended.
+         */
+        public final float simulatedTime;
+        public final int firesStarted;
+        public final int waterUsed;
+        /**
+         * Wall time of every tick in nanoseconds, sorted.
+         */
+        private final long[] tickNanos;
+
+        Result(Run run,
+               HeadlessSimulation.Outcome outcome,
+               int ticks,
+               float simulatedTime,
+               int firesStarted,
+               int waterUsed,
+               long[] tickNanos) {
+            this.run = run;
+            this.outcome = outcome;
+            this.ticks = ticks;
+            this.simulatedTime = simulatedTime;
+            this.firesStarted = firesStarted;
+            this.waterUsed = waterUsed;
+            this.tickNanos = tickNanos;
+        }
+
+        /**
+         * @return the total wall time spent in ticks, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            long sum = 0;
+            for (long t : tickNanos) sum += t;
+            return sum;
+        }
+
+        /**
+         * @param p the fraction of ticks, between 0 and 1.
+         * @return the wall time the given fraction of ticks stayed under.
+         */
+        public long getTickPercentile(float p) {
+            return percentile(tickNanos, p);
+        }
+
+    }
+
+    /**
+     * The aggregated results of a batch.
+     */
+    public static class Report {
+
+        public final List<Result> results;
+        /**
+         * Wall time of the whole batch in nanoseconds.
+         */
+        public final long wallNanos;
+
+        Report(List<Result> results, long wallNanos) {
+            this.results = results;
+            this.wallNanos = wallNanos;
+        }
+
+        /**
+         * @param outcome the outcome to count.
+         * @return the number of runs that ended that way.
+         */
+        public int count(HeadlessSimulation.Outcome outcome) {
+            int n = 0;
+            for (Result r : results) {
+                if (r.outcome == outcome) n++;
+            }
+            return n;
+        }
+
+        /**
+         * @return the total number of ticks simulated.
+         */
+        public long getTotalTicks() {
+            long n = 0;
+            for (Result r : results) n += r.ticks;
+            return n;
+        }
+
+        @Override
+        public String toString() {
+            int n = Math.max(results.size(), 1);
+            int won = count(HeadlessSimulation.Outcome.VICTORY);
+            float completion = 0;
+            float fires = 0;
+            float water = 0;
+            long tickNanos = 0;
+            LongArray p99s = new LongArray(results.size());
+            for (Result r : results) {
+                if (r.outcome == HeadlessSimulation.Outcome.VICTORY) {
+                    completion += r.simulatedTime;
+                }
+                fires += r.firesStarted;
+                water += r.waterUsed;
+                tickNanos += r.getTotalNanos();
+                p99s.add(r.getTickPercentile(0.99f));
+            }
+            p99s.sort();
+            long ticks = Math.max(getTotalTicks(), 1);
+            return String.format(Locale.ROOT,
+                                 "%d runs in %.1fms: %d won, %d lost, %d timed out%n" +
+                                         "completion %.2fs avg over wins, fires %.2f avg, water %.1f avg%n" +
+                                         "tick cost %.1fus avg, %.1fus median run p99, %.1fus worst run p99, %.0f ticks/s",
+                                 results.size(),
+                                 wallNanos / 1e6,
+                                 won,
+                                 count(HeadlessSimulation.Outcome.FAILURE),
+                                 count(HeadlessSimulation.Outcome.TIMEOUT),
+                                 won == 0 ? 0 : completion / won,
+                                 fires / n,
+                                 water / n,
+                                 tickNanos / 1e3 / ticks,
+                                 percentile(p99s.toArray(), 0.5f) / 1e3,
+                                 percentile(p99s.toArray(), 1) / 1e3,
+                                 ticks / (wallNanos / 1e9));
+        }
+
+    }
+
+    /**
+     * @param sorted values in ascending order.
+     * @param p      the fraction of values, between 0 and 1.
+     * @return the value the given fraction of values stay under
+     */
+    private static long percentile(long[] sorted, float p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+}
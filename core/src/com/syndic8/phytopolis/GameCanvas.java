@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -28,6 +29,14 @@ import java.util.List;
 
 public class GameCanvas {
 
+    /**
+     * Width of the canvas in world units, regardless of the window size
+     */
+    public static final float STANDARD_WIDTH = 16f;
+    /**
+     * Height of the canvas in world units, regardless of the window size
+     */
+    public static final float STANDARD_HEIGHT = 9f;
     private final OrthographicCamera camera;
     private final OrthographicCamera gameCamera;
     private final OrthographicCamera hudCamera;
@@ -82,8 +91,8 @@ public class GameCanvas {
      * of the necessary graphics objects.
      */
     public GameCanvas(List<Graphics.DisplayMode> dm) {
-        width = 16f;
-        height = 9f;
+        width = STANDARD_WIDTH;
+        height = STANDARD_HEIGHT;
         active = DrawPass.INACTIVE;
         spriteBatch = new PolygonSpriteBatch();
         hudBatch = new SpriteBatch();
@@ -386,6 +395,19 @@ public class GameCanvas {
         hudBatch.draw(t, x, y, w, h);
     }
 
+    /**
+     * Draws text to the HUD batch with its top left corner at the given
+     * coordinates.
+     *
+     * @param font the font, scaled to HUD units.
+     * @param text the text to draw.
+     * @param x    the x-coordinate of the left edge.
+     * @param y    the y-coordinate of the top edge.
+     */
+    public void drawHudText(BitmapFont font, CharSequence text, float x, float y) {
+        font.draw(hudBatch, text, x, y);
+    }
+
     /**
      * Draws the tinted texture at the given position.
      * <p>
@@ -618,6 +640,29 @@ public class GameCanvas {
                          180.0f * angle / (float) Math.PI);
     }
 
+    /**
+     * Draws a run of quads from a single texture in one batch call
+     * <p>
+     * The vertices are already in world coordinates, with four vertices per
+     * quad in the sprite batch layout (x, y, packed color, u, v), so no
+     * transform is applied.
+     *
+     * @param image    The texture of every quad
+     * @param vertices The quad vertices
+     * @param offset   The index of the first float to draw
+     * @param count    The number of floats to draw
+     */
+    public void draw(Texture image, float[] vertices, int offset, int count) {
+        if (active != DrawPass.STANDARD) {
+            Gdx.app.error("GameCanvas",
+                          "Cannot draw without active begin()",
+                          new IllegalStateException());
+            return;
+        }
+
+        spriteBatch.draw(image, vertices, offset, count);
+    }
+
     public Viewport getTextViewport() {
         return textViewport;
     }
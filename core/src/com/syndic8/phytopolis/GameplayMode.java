@@ -17,6 +17,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
@@ -24,13 +25,16 @@ import com.syndic8.phytopolis.assets.AssetDirectory;
 import com.syndic8.phytopolis.level.*;
 import com.syndic8.phytopolis.level.models.*;
 import com.syndic8.phytopolis.util.FilmStrip;
+import com.syndic8.phytopolis.util.FrameProfiler.Phase;
 import com.syndic8.phytopolis.util.OSUtils;
+import com.syndic8.phytopolis.util.RandomController;
 import com.syndic8.phytopolis.util.Tilemap;
+import com.syndic8.phytopolis.util.TimingWheel;
 import edu.cornell.gdiac.audio.AudioSource;
 import edu.cornell.gdiac.audio.SoundEffect;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Main controller for the gameplay mode.
@@ -46,6 +50,21 @@ public class GameplayMode extends WorldController {
     private final SoundController soundController;
     private final float timeSinceUIUpdate = 0;
     private final Color bgColor = new Color(Color.WHITE);
+    /**
+     * Root random stream of this world, reseeded on every reset.
+     */
+    private final RandomController random;
+    /**
+     * Random streams of each subsystem, split from the root on every reset.
+     */
+    private final RandomController plantRandom;
+    private final RandomController hazardRandom;
+    private final RandomController sunRandom;
+    /**
+     * Timers of the hazards, suns and water, driven by simulated time and
+     * restarted on every reset.
+     */
+    private final TimingWheel scheduler = new TimingWheel(WORLD_STEP);
     protected Texture jumpTexture;
     private PlantController plantController;
     private HazardController hazardController;
@@ -79,31 +98,119 @@ public class GameplayMode extends WorldController {
     private float timeSpent;
     private float bestTime;
     private Tilemap.TilemapParams tilemapParams;
+    /**
+     * Seed the random generator was given on the last reset.
+     */
+    private long seed;
+    /**
+     * Whether the next resets must reuse the seed, as when replaying.
+     */
+    private boolean seedFixed;
+    /**
+     * Recording of the current attempt, or null if not recording.
+     */
+    private InputRecorder recorder;
 
     /**
-     * Creates and initialize a new instance of the game.
+     * Creates and initialize a new instance of the game, reading the shared
+     * input and sound controllers.
      */
     public GameplayMode(GameCanvas c) {
+        this(c, InputController.getInstance(), SoundController.getInstance());
+    }
+
+    /**
+     * Creates and initialize a new instance of the game.
+     * <p>
+     * The world and all of its subcontrollers only use the given input and
+     * sound controllers, so headless worlds built this way can run on
+     * separate threads.
+     *
+     * @param c  the canvas, or null for a headless world.
+     * @param ic the input controller read by this world.
+     * @param sc the sound controller played by this world.
+     */
+    public GameplayMode(GameCanvas c, InputController ic, SoundController sc) {
         super();
         cameraVector = new Vector2();
         projMousePosCache = new Vector2();
+        random = new RandomController(RandomController.DEFAULT_SEED);
+        plantRandom = random.split();
+        hazardRandom = random.split();
+        sunRandom = random.split();
         gathered = false;
-        ic = InputController.getInstance();
+        this.ic = ic;
         canvas = c;
-        this.soundController = SoundController.getInstance();
+        this.soundController = sc;
         this.backgroundMusic = -1;
         timeSinceGrow = 1.1f;
         timeSpent = 0;
     }
 
+    @Override
+    public InputController getInputController() {
+        return ic;
+    }
+
+    @Override
+    public SoundController getSoundController() {
+        return soundController;
+    }
+
     public void setLevel(String lvl) {
         this.lvl = lvl;
     }
 
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Makes every following reset seed the random streams with the given
+     * seed, so that attempts can be reproduced.
+     *
+     * @param seed the seed to reset with.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seedFixed = true;
+    }
+
+    /**
+     * Writes a snapshot of the plant and the hazards on it.
+     *
+     * @param stream the stream to write to; flushed but not closed.
+     */
+    public void writePlantSnapshot(OutputStream stream) {
+        plantController.writeSnapshot(stream, hazardController);
+    }
+
+    /**
+     * Replaces the plant and the hazards on it with a saved snapshot, adding
+     * all of the restored objects to the world at once.
+     *
+     * @param stream the stream to read from; not closed.
+     */
+    public void readPlantSnapshot(InputStream stream) {
+        addObjects(plantController.readSnapshot(stream, hazardController));
+    }
+
     public Tilemap getTilemap() {
         return tilemap;
     }
 
+    public PlantController getPlantController() {
+        return plantController;
+    }
+
+    public HazardController getHazardController() {
+        return hazardController;
+    }
+
+    public ResourceController getResourceController() {
+        return resourceController;
+    }
+
     public Texture getSunIndicatorTexture() {
         return sunIndicatorTexture;
     }
@@ -140,47 +247,22 @@ public class GameplayMode extends WorldController {
         boingSound = soundController.addSoundEffect(directory.getEntry(
                 "bouncyleafboing",
                 SoundEffect.class));
-        sunSound = SoundController.getInstance()
-                .addSoundEffect(directory.getEntry("suncollectsound",
-                                                   SoundEffect.class));
-        waterCollectSound = SoundController.getInstance()
-                .addSoundEffect(directory.getEntry("watercollectsound",
-                                                   SoundEffect.class));
-        bugStompSound = SoundController.getInstance()
-                .addSoundEffect(directory.getEntry("bugstomp",
-                                                   SoundEffect.class));
+        sunSound = soundController.addSoundEffect(directory.getEntry(
+                "suncollectsound",
+                SoundEffect.class));
+        waterCollectSound = soundController.addSoundEffect(directory.getEntry(
+                "watercollectsound",
+                SoundEffect.class));
+        bugStompSound = soundController.addSoundEffect(directory.getEntry(
+                "bugstomp",
+                SoundEffect.class));
 
         background = directory.getEntry(tilemap.getBackground(), Texture.class);
 
-        uiController = new UIController(canvas, tilemap);
+        uiController = new UIController(canvas, tilemap, ic);
         uiController.gatherAssets(directory);
 
-        resourceController = new ResourceController();
-        float branchHeight = tilemap.getTileHeight();
-        int plantNodesPerRow = Math.round(
-                (tilemap.getTilemapWidth() - 2) * (float) Math.sqrt(3));
-        float plantWidth =
-                branchHeight * (float) Math.sqrt(3) * (plantNodesPerRow - 1) /
-                        2;
-        float plantXOrigin = bounds.width / 2 - plantWidth / 2;
-        List<Float> plantXPositions = new ArrayList<Float>();
-        for (int i = 0; i < plantNodesPerRow; i++) {
-            plantXPositions.add(
-                    plantXOrigin + i * plantWidth / (plantNodesPerRow - 1));
-        }
-
-        plantController = new PlantController(resourceController);
-        hazardController = new HazardController(plantController,
-                                                (int) tilemap.getFireRate(),
-                                                2,
-                                                8,
-                                                6,
-                                                10,
-                                                tilemap);
-        sunController = new SunController(5,
-                                          10,
-                                          tilemap.getWorldHeight(),
-                                          plantXPositions);
+        createSubcontrollers();
         plantController.gatherAssets(directory);
         hazardController.gatherAssets(directory);
         sunController.gatherAssets(directory);
@@ -214,6 +296,66 @@ public class GameplayMode extends WorldController {
         }
     }
 
+    /**
+     * Gather the level data for a headless world.
+     * <p>
+     * No textures, sounds or fonts are loaded, so this world can be stepped
+     * without a running application but must never be drawn. The tilemap
+     * should already have gathered its tilesets.
+     *
+     * @param tm        the headless tilemap of the level.
+     * @param constants the gameplay constants.
+     */
+    public void gatherHeadless(Tilemap tm, JsonValue constants) {
+        assert isHeadless() : "Headless worlds must not have a canvas";
+        tilemap = tm;
+        setBounds(tilemap.getWorldWidth(), tilemap.getWorldHeight());
+        uiController = new UIController(tilemap, ic);
+        createSubcontrollers();
+        this.constants = constants;
+        gathered = true;
+    }
+
+    /**
+     * Creates the controllers that run the level.
+     */
+    private void createSubcontrollers() {
+        resourceController = new ResourceController();
+        float branchHeight = tilemap.getTileHeight();
+        int plantNodesPerRow = Math.round(
+                (tilemap.getTilemapWidth() - 2) * (float) Math.sqrt(3));
+        float plantWidth =
+                branchHeight * (float) Math.sqrt(3) * (plantNodesPerRow - 1) /
+                        2;
+        float plantXOrigin = bounds.width / 2 - plantWidth / 2;
+        FloatArray plantXPositions = new FloatArray(plantNodesPerRow);
+        for (int i = 0; i < plantNodesPerRow; i++) {
+            plantXPositions.add(
+                    plantXOrigin + i * plantWidth / (plantNodesPerRow - 1));
+        }
+
+        plantController = new PlantController(resourceController,
+                                              plantRandom,
+                                              soundController,
+                                              ic);
+        hazardController = new HazardController(plantController,
+                                                (int) tilemap.getFireRate(),
+                                                2,
+                                                8,
+                                                6,
+                                                10,
+                                                tilemap,
+                                                hazardRandom,
+                                                soundController,
+                                                scheduler);
+        sunController = new SunController(5,
+                                          10,
+                                          tilemap.getWorldHeight(),
+                                          plantXPositions,
+                                          sunRandom,
+                                          scheduler);
+    }
+
     private AudioSource getLevelMusic(AssetDirectory directory) {
         switch (lvl) {
             case "gameplay:lvl1":
@@ -294,6 +436,7 @@ public class GameplayMode extends WorldController {
      */
     public void update(float dt) {
         //        if (dt > 0.02f) System.out.println(dt);
+        if (recorder != null) recorder.record(ic, getMouseWorldPosition());
         if (!isComplete()) {
             timeSpent += dt;
         }
@@ -301,7 +444,10 @@ public class GameplayMode extends WorldController {
             soundController.setActualMusicVolume(
                     super.getVolume() * soundController.getUserMusicVolume());
         int water = resourceController.getCurrWater();
+        profiler.begin(Phase.HAZARDS);
+        scheduler.advance(dt);
         hazardController.update(dt);
+        profiler.end(Phase.HAZARDS);
         // Process actions in object model
         avatar.setMovement(ic.getHorizontal() * avatar.getForce());
         avatar.setJumping(ic.didJump());
@@ -316,26 +462,9 @@ public class GameplayMode extends WorldController {
         if (ic.didScrollReset()) {
             ic.resetScrolled();
         }
-        ic.setHeight(tilemap.getTilemapHeight() * tilemap.getTileHeight() -
-                             canvas.getHeight());
-        float aspectRatio = canvas.getWidth() / canvas.getHeight();
-        float cameraHeight = tilemap.getWorldWidth() / aspectRatio;
-        //        cameraVector.set(tilemap.getWorldWidth() / 2f,
-        //                         Math.max(cameraHeight / 2f,
-        //                                  Math.min(tilemap.getTilemapHeight() *
-        //                                                   tilemap.getTileHeight() -
-        //                                                   cameraHeight / 2f,
-        //                                           avatar.getY()) + ic.getScrolled()));
-        cameraVector.set(tilemap.getWorldWidth() / 2f,
-                         Math.max(cameraHeight / 2f,
-                                  Math.min(avatar.getY() + ic.getScrolled(),
-                                           tilemap.getWorldHeight() -
-                                                   cameraHeight / 2f)));
-
         // generate hazards please
         for (Model m : objects) {
             if (m instanceof Water) {
-                ((Water) m).regenerate(dt);
                 m.update(dt);
             }
             if (m instanceof Sun) {
@@ -349,19 +478,28 @@ public class GameplayMode extends WorldController {
                 m.update(dt);
             }
         }
-        Sun s = sunController.spawnSuns(dt, tilemap);
+        Sun s = sunController.spawnSuns(tilemap);
         if (s != null) addObject(s);
+        profiler.begin(Phase.HAZARDS);
         for (Hazard h : hazardController.updateHazards(dt)) {
             addObject(h);
         }
-        projMousePosCache.set(ic.getMouseX(), ic.getMouseY());
-        Vector2 unprojMousePos = canvas.unprojectGame(projMousePosCache);
+        if (!isHeadless()) {
+            addObjects(hazardController.updateFireVisuals(canvas,
+                                                          cameraVector,
+                                                          dt));
+        }
+        profiler.end(Phase.HAZARDS);
+        Vector2 unprojMousePos = getMouseWorldPosition();
         if (ic.didMousePress() && hazardController.hasFire(unprojMousePos)) {
             hazardController.extinguishFire(unprojMousePos, avatar);
         }
+        profiler.begin(Phase.PLANT);
         hazardController.deleteFireBugs(plantController.propagateDestruction(dt));
+        profiler.end(Phase.PLANT);
 
         //        if (timeSinceUIUpdate >= 1) {
+        profiler.begin(Phase.UI);
         uiController.update(dt,
                             resourceController.getCurrRatio(),
                             plantController,
@@ -372,6 +510,7 @@ public class GameplayMode extends WorldController {
                             plantController.countTimerDeductions(),
                             hazardController.getFireProgress(),
                             tilemap);
+        profiler.end(Phase.UI);
         collisionController.setAddedWater(false);
         //        } else {
         //            timeSinceUIUpdate += 0.05;
@@ -385,6 +524,7 @@ public class GameplayMode extends WorldController {
             fadeOut(1f);
             doVolumeFade(true);
             uiController.pauseTimer();
+            if (isHeadless()) return;
             FileHandle saveFile = Gdx.files.absolute(OSUtils.getSaveFile());
             JsonReader saveJsonReader = new JsonReader();
             JsonValue saveJson = saveJsonReader.parse(saveFile);
@@ -402,14 +542,48 @@ public class GameplayMode extends WorldController {
         }
     }
 
+    /**
+     * Moves the camera to follow the player, offset by the scroll wheel.
+     */
+    private void updateCamera() {
+        ic.setHeight(tilemap.getTilemapHeight() * tilemap.getTileHeight() -
+                             canvas.getHeight());
+        float aspectRatio = canvas.getWidth() / canvas.getHeight();
+        float cameraHeight = tilemap.getWorldWidth() / aspectRatio;
+        //        cameraVector.set(tilemap.getWorldWidth() / 2f,
+        //                         Math.max(cameraHeight / 2f,
+        //                                  Math.min(tilemap.getTilemapHeight() *
+        //                                                   tilemap.getTileHeight() -
+        //                                                   cameraHeight / 2f,
+        //                                           avatar.getY()) + ic.getScrolled()));
+        cameraVector.set(tilemap.getWorldWidth() / 2f,
+                         Math.max(cameraHeight / 2f,
+                                  Math.min(avatar.getDrawY() + ic.getScrolled(),
+                                           tilemap.getWorldHeight() -
+                                                   cameraHeight / 2f)));
+    }
+
+    /**
+     * Returns the mouse position in world coordinates.
+     * <p>
+     * Headless worlds have no camera to unproject through, so their scripted
+     * mouse position is already in world coordinates.
+     *
+     * @return the mouse position in world coordinates (shared cache vector)
+     */
+    private Vector2 getMouseWorldPosition() {
+        projMousePosCache.set(ic.getMouseX(), ic.getMouseY());
+        if (isHeadless()) return projMousePosCache;
+        return canvas.unprojectGame(projMousePosCache);
+    }
+
     /**
      * Processes plant growth using player input. Grows a branch in the
      * corresponding direction at the node closest to the player's position.
      */
     public void processPlantGrowth() {
         // get mouse position
-        projMousePosCache.set(ic.getMouseX(), ic.getMouseY());
-        Vector2 unprojMousePos = canvas.unprojectGame(projMousePosCache);
+        Vector2 unprojMousePos = getMouseWorldPosition();
 
         float avatarX = avatar.getX();
         float avatarY = avatar.getY();
@@ -535,6 +709,23 @@ public class GameplayMode extends WorldController {
         }
     }
 
+    /**
+     * Branches and leaves are drawn by the plant controller in one pass.
+     *
+     * @param obj the object.
+     * @return true if the object is a branch or leaf.
+     */
+    @Override
+    protected boolean isBatched(Model obj) {
+        Model.ModelType type = obj.getType();
+        return type == Model.ModelType.BRANCH || type == Model.ModelType.LEAF;
+    }
+
+    @Override
+    protected void drawBatched() {
+        plantController.drawPlant(canvas);
+    }
+
     /**
      * Draw the physics objects to the canvas
      * <p>
@@ -544,6 +735,7 @@ public class GameplayMode extends WorldController {
      * The method draws all objects in the order that they were added.
      */
     public void draw() {
+        updateCamera();
         canvas.clear();
         canvas.cameraUpdate(cameraVector, true);
         canvas.beginGame();
@@ -691,9 +883,18 @@ public class GameplayMode extends WorldController {
     /**
      * Resets the status of the game so that we can play again.
      * <p>
-     * This method disposes of the world and creates a new one.
+     * This method disposes of the world and creates a new one. Unless a seed
+     * was fixed, each reset draws a new seed from the world's random stream,
+     * and windowed attempts are recorded to the data directory for replay.
      */
     public void reset() {
+        stopRecording();
+        if (!seedFixed) seed = random.nextLong();
+        random.setSeed(seed);
+        plantRandom.splitFrom(random);
+        hazardRandom.splitFrom(random);
+        sunRandom.splitFrom(random);
+        scheduler.clear();
         timeSinceGrow = 1.1f;
         timeSpent = 0;
         Vector2 gravity = new Vector2(world.getGravity());
@@ -717,6 +918,9 @@ public class GameplayMode extends WorldController {
 
         world = new World(gravity, false);
         tilemap.populateLevel(this);
+        for (Model obj : objects) {
+            if (obj instanceof Water w) w.setClock(scheduler);
+        }
         tilemapParams = tilemap.getTilemapParams();
         populateBoundaryWalls();
         float branchHeight = tilemap.getTileHeight();
@@ -726,7 +930,7 @@ public class GameplayMode extends WorldController {
                 branchHeight * (float) Math.sqrt(3) * (plantNodesPerRow - 1) /
                         2;
         float plantXOrigin = bounds.width / 2 - plantWidth / 2;
-        plantController.reset(world, tilemapParams);
+        plantController.reset(tilemap, tilemapParams);
 
         hazardController.reset((int) tilemap.getFireRate(),
                                2,
@@ -738,6 +942,32 @@ public class GameplayMode extends WorldController {
                             plantController.getPlantXPositions());
         setComplete(false);
         setFailure(false);
+        if (!isHeadless()) startRecording();
+    }
+
+    /**
+     * Starts recording the input of this attempt, replacing the last
+     * recording.
+     */
+    private void startRecording() {
+        FileHandle file = Gdx.files.absolute(OSUtils.getDataDirectory() +
+                                                     "/replay.bin");
+        recorder = new InputRecorder(file.write(false), lvl, seed, getTimestep());
+    }
+
+    /**
+     * Finishes the recording of this attempt, if any.
+     */
+    private void stopRecording() {
+        if (recorder == null) return;
+        recorder.close();
+        recorder = null;
+    }
+
+    @Override
+    public void dispose() {
+        stopRecording();
+        super.dispose();
     }
 
     /**
@@ -805,7 +1035,7 @@ public class GameplayMode extends WorldController {
                             tilemapParams,
                             0.9f);
 
-        avatar.setBoingSound(boingSound);
+        avatar.setBoingSound(soundController, boingSound);
         avatar.setTexture(avatarTexture);
         avatar.setName("dude");
         addObject(avatar);
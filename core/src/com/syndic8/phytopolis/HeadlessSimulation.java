@@ -0,0 +1,188 @@
+package com.syndic8.phytopolis;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.syndic8.phytopolis.util.Tilemap;
+
+/**
+ * Steps a GameplayMode without a canvas, audio engine or cursor.
+ * <p>
+ * The simulation reads the level straight from the asset JSONs, so it does
+ * not need a running application; only the Box2D natives have to be on the
+ * classpath. Input comes from a Script that fills in a TickInput before
+ * every tick, with the mouse given in world coordinates.
+ */
+public class HeadlessSimulation {
+
+    /**
+     * The default amount of simulated time per tick.
+     */
+    public static final float DEFAULT_DT = WorldController.WORLD_STEP;
+    /**
+     * The asset directory manifest, relative to the assets root.
+     */
+    private static final String ASSET_MANIFEST = "assets.json";
+    /**
+     * The world being simulated.
+     */
+    private final GameplayMode world;
+    /**
+     * The scripted input read by the world on every tick.
+     */
+    private final InputController.TickInput input;
+    /**
+     * Number of ticks simulated since the last reset.
+     */
+    private int ticks;
+    /**
+     * Amount of simulated time since the last reset.
+     */
+    private float simulatedTime;
+
+    /**
+     * Creates a headless simulation of the given level.
+     * <p>
+     * The world gets its own scripted input and silent sound controllers and
+     * touches no singletons, so simulations can run on separate threads.
+     *
+     * @param assets the assets root, containing assets.json.
+     * @param level  the level key, e.g. "gameplay:lvl1".
+     */
+    public HeadlessSimulation(FileHandle assets, String level) {
+        input = new InputController.TickInput();
+        world = new GameplayMode(null,
+                                 new InputController(input),
+                                 new SoundController(true));
+        world.setLevel(level);
+        world.gatherHeadless(loadTilemap(assets, level),
+                             loadJson(assets, "gameplay:constants"));
+        reset();
+    }
+
+    /**
+     * Loads a level as a headless tilemap, with its tilesets gathered.
+     *
+     * @param assets the assets root, containing assets.json.
+     * @param level  the level key, e.g. "gameplay:lvl1".
+     * @return the headless tilemap
+     */
+    public static Tilemap loadTilemap(FileHandle assets, String level) {
+        Tilemap tilemap = new Tilemap(loadJson(assets, level), null);
+        tilemap.gatherHeadless(loadJson(assets, "tileset.tsx"),
+                               loadJson(assets, "rsrc.tsx"),
+                               loadJson(assets, "hazards.tsx"));
+        return tilemap;
+    }
+
+    /**
+     * Loads a JSON asset by its key in the asset directory manifest.
+     *
+     * @param assets the assets root, containing assets.json.
+     * @param key    the asset key, e.g. "gameplay:constants".
+     * @return the parsed JSON
+     */
+    public static JsonValue loadJson(FileHandle assets, String key) {
+        JsonReader reader = new JsonReader();
+        String path = reader.parse(assets.child(ASSET_MANIFEST))
+                .get("jsons")
+                .getString(key, null);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown asset: " + key);
+        }
+        return reader.parse(assets.child(path));
+    }
+
+    /**
+     * Resets the level to its initial state.
+     */
+    public void reset() {
+        world.reset();
+        input.clear();
+        ticks = 0;
+        simulatedTime = 0;
+    }
+
+    /**
+     * Advances the simulation by a single tick.
+     * <p>
+     * This follows the same pre-update, update, post-update order as
+     * WorldController.render, minus the draw.
+     *
+     * @param dt Number of seconds to simulate
+     */
+    public void step(float dt) {
+        if (world.preUpdate(dt)) {
+            world.update(dt);
+            world.postUpdate(dt);
+        }
+        ticks++;
+        simulatedTime += dt;
+    }
+
+    /**
+     * Runs the level until it is won, lost, or the tick limit is reached.
+     *
+     * @param script   the input script, or null for no input.
+     * @param dt       Number of seconds to simulate per tick
+     * @param maxTicks the maximum number of ticks to simulate
+     * @return how the run ended
+     */
+    public Outcome run(Script script, float dt, int maxTicks) {
+        while (ticks < maxTicks && getOutcome() == Outcome.TIMEOUT) {
+            if (script != null) script.apply(ticks, world, input);
+            step(dt);
+        }
+        return getOutcome();
+    }
+
+    /**
+     * @return how the level stands: won, lost, or TIMEOUT if still running.
+     */
+    public Outcome getOutcome() {
+        if (world.isComplete()) return Outcome.VICTORY;
+        if (world.isFailure()) return Outcome.FAILURE;
+        return Outcome.TIMEOUT;
+    }
+
+    public GameplayMode getWorld() {
+        return world;
+    }
+
+    public InputController.TickInput getInput() {
+        return input;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public float getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    /**
+     * Ways a simulated run can end.
+     */
+    public enum Outcome {VICTORY, FAILURE, TIMEOUT}
+
+    /**
+     * Scripted player for a headless simulation.
+     */
+    public interface Script {
+
+        /**
+         * Fills in the input for the given tick.
+         * <p>
+         * The input keeps its values from the previous tick, so a script only
+         * needs to change what is different.
+         *
+         * @param tick  the tick about to be simulated.
+         * @param world the world being simulated.
+         * @param input the input the world will read this tick.
+         */
+        void apply(int tick, GameplayMode world, InputController.TickInput input);
+
+    }
+
+}
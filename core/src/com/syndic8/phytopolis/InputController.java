@@ -28,10 +28,15 @@ public class InputController implements InputProcessor {
     private final Map<String, Integer> defaultBindings;
     private final JsonValue settingsJson;
     private final FileHandle configFile;
+    /**
+     * Scripted input for headless simulation, or null to poll Gdx.input.
+     */
+    private final TickInput simulated;
     private Map<String, Integer> bindings;
     private boolean updateScheduled;
     private Binding bindingToUpdate;
     private int exitKey;
+    private int profilerKey;
     /**
      * Whether the grow branch mod key was pressed.
      */
@@ -72,6 +77,11 @@ public class InputController implements InputProcessor {
      */
     private boolean exitKeyPressed;
     private boolean exitKeyPrevious;
+    /**
+     * Whether the profiler overlay key was pressed.
+     */
+    private boolean profilerKeyPressed;
+    private boolean profilerKeyPrevious;
     /**
      * Whether the mouse left click was pressed.
      */
@@ -88,6 +98,11 @@ public class InputController implements InputProcessor {
     private boolean scrollReset;
     private float horizontal;
     private float scrolled;
+    /**
+     * Scroll wheel amount received since the last tick, and during it.
+     */
+    private float pendingScroll;
+    private float tickScroll;
 
     /**
      * Creates a new input controller.
@@ -103,13 +118,41 @@ public class InputController implements InputProcessor {
         configFile = Gdx.files.absolute(OSUtils.getConfigFile());
         JsonReader settingsJsonReader = new JsonReader();
         settingsJson = settingsJsonReader.parse(configFile);
+        simulated = null;
 
         // Reading preferences and otherwise setting defaults
         setBindings();
     }
 
-    private void setBindings() {
+    /**
+     * Creates a new input controller fed by scripted input.
+     * <p>
+     * Used by headless simulations, which have no keyboard or mouse. This
+     * controller never polls Gdx.input, nor does it read or write the config
+     * file. It always uses the default bindings. Fill in the source before
+     * every tick; mouse coordinates are given in world space. Modifiers are
+     * taken as given, so unbound ones must be reported as held.
+     *
+     * @param source the scripted input read on every tick
+     */
+    public InputController(TickInput source) {
+        multiplexer = new InputMultiplexer();
+        multiplexer.addProcessor(this);
+        keys = new IntSet();
+        assignedKeys = new IntSet();
+        preferences = null;
+        defaultBindings = new HashMap<>();
+        configFile = null;
+        settingsJson = null;
+        simulated = source;
+        putDefaultBindings();
+        bindings = new HashMap<>(defaultBindings);
+        updateAssigned();
+    }
+
+    private void putDefaultBindings() {
         exitKey = Input.Keys.ESCAPE;
+        profilerKey = Input.Keys.F3;
         defaultBindings.put("growBranchModKey", -1);
         defaultBindings.put("growBranchButton", Input.Buttons.LEFT);
         defaultBindings.put("growLeafModKey", Input.Keys.SHIFT_LEFT);
@@ -118,6 +161,10 @@ public class InputController implements InputProcessor {
         defaultBindings.put("leftKey", Input.Keys.A);
         defaultBindings.put("dropKey", Input.Keys.S);
         defaultBindings.put("rightKey", Input.Keys.D);
+    }
+
+    private void setBindings() {
+        putDefaultBindings();
         for (String key : defaultBindings.keySet()) {
             int actualVal = settingsJson.getInt(key);
             bindings.put(key, actualVal);
@@ -148,6 +195,41 @@ public class InputController implements InputProcessor {
         return theController;
     }
 
+    /**
+     * Returns true if this controller reads scripted input.
+     *
+     * @return true if this controller reads scripted input
+     */
+    public boolean isSimulated() {
+        return simulated != null;
+    }
+
+    /**
+     * Copies the input read this tick into the given TickInput.
+     * <p>
+     * Modifiers are stored as seen by the game, so an unbound modifier counts
+     * as held. The mouse is left in screen coordinates; callers that replay
+     * the input must convert it to world coordinates themselves.
+     *
+     * @param out the input to copy into.
+     */
+    public void capture(TickInput out) {
+        out.mouseX = mouseX;
+        out.mouseY = mouseY;
+        out.growBranchMod = isGrowBranchModDown();
+        out.growBranchButton = growBranchButtonPressed;
+        out.growLeafMod = isGrowLeafModDown();
+        out.growLeafButton = growLeafButtonPressed;
+        out.jump = jumpKeyPressed;
+        out.left = leftKeyPressed;
+        out.right = rightKeyPressed;
+        out.drop = dropKeyDown;
+        out.exit = exitKeyPressed;
+        out.mouse = mousePressed;
+        out.scrollReset = scrollReset;
+        out.scroll = tickScroll;
+    }
+
     public void resetBindings() {
         bindings = new HashMap<>(defaultBindings);
         updateAssigned();
@@ -155,6 +237,7 @@ public class InputController implements InputProcessor {
     }
 
     private void updatePreferences() {
+        if (configFile == null) return;
         for (String key : bindings.keySet()) {
             settingsJson.get(key).set(bindings.get(key), null);
         }
@@ -169,7 +252,8 @@ public class InputController implements InputProcessor {
     }
 
     public boolean isGrowBranchModDown() {
-        if (bindings.get("growBranchModKey") == -1) return true;
+        if (simulated == null && bindings.get("growBranchModKey") == -1)
+            return true;
         return growBranchModDown;
     }
 
@@ -184,7 +268,8 @@ public class InputController implements InputProcessor {
     }
 
     public boolean isGrowLeafModDown() {
-        if (bindings.get("growLeafModKey") == -1) return true;
+        if (simulated == null && bindings.get("growLeafModKey") == -1)
+            return true;
         return growLeafModDown;
     }
 
@@ -200,6 +285,10 @@ public class InputController implements InputProcessor {
         return exitKeyPressed && !exitKeyPrevious;
     }
 
+    public boolean didToggleProfiler() {
+        return profilerKeyPressed && !profilerKeyPrevious;
+    }
+
     public InputMultiplexer getMultiplexer() {
         return multiplexer;
     }
@@ -252,9 +341,44 @@ public class InputController implements InputProcessor {
         growLeafButtonPrevious = growLeafButtonPressed;
         jumpKeyPrevious = jumpKeyPressed;
         exitKeyPrevious = exitKeyPressed;
+        profilerKeyPrevious = profilerKeyPressed;
         mousePrevious = mousePressed;
+        tickScroll = pendingScroll;
+        pendingScroll = 0;
 
-        readKeyboard();
+        if (simulated != null) readSimulated();
+        else readKeyboard();
+    }
+
+    /**
+     * Reads input from the scripted source.
+     */
+    private void readSimulated() {
+        mouseX = simulated.mouseX;
+        mouseY = simulated.mouseY;
+        growBranchModDown = simulated.growBranchMod;
+        growBranchButtonPressed = simulated.growBranchButton;
+        growLeafModDown = simulated.growLeafMod;
+        growLeafButtonPressed = simulated.growLeafButton;
+        jumpKeyPressed = simulated.jump;
+        leftKeyPressed = simulated.left;
+        dropKeyDown = simulated.drop;
+        rightKeyPressed = simulated.right;
+        exitKeyPressed = simulated.exit;
+        mousePressed = simulated.mouse;
+
+        horizontal = 0;
+        if (rightKeyPressed) {
+            horizontal += 1.0f;
+        }
+        if (leftKeyPressed) {
+            horizontal -= 1.0f;
+        }
+
+        if (simulated.scroll != 0) scrolled(0, simulated.scroll);
+        tickScroll = simulated.scroll;
+        pendingScroll = 0;
+        scrollReset = simulated.scrollReset;
     }
 
     /**
@@ -281,6 +405,7 @@ public class InputController implements InputProcessor {
         dropKeyDown = Gdx.input.isKeyPressed(bindings.get("dropKey"));
         rightKeyPressed = Gdx.input.isKeyPressed(bindings.get("rightKey"));
         exitKeyPressed = Gdx.input.isKeyPressed(exitKey);
+        profilerKeyPressed = Gdx.input.isKeyPressed(profilerKey);
         mousePressed = Gdx.input.isButtonPressed(Input.Buttons.LEFT);
 
         // Manage horizontal input
@@ -470,6 +595,7 @@ public class InputController implements InputProcessor {
 
     @Override
     public boolean scrolled(float v, float v1) {
+        pendingScroll += v1;
         scrolled -= v1;
         scrolled = Math.max(-height, Math.min(height, scrolled));
         return false;
@@ -515,6 +641,55 @@ public class InputController implements InputProcessor {
         return "Unknown";
     }
 
+    /**
+     * Scripted input for a single simulation tick.
+     * <p>
+     * Fields mirror the logical controls rather than raw keys, so scripts do
+     * not depend on the player's bindings.
+     */
+    public static class TickInput {
+
+        /**
+         * Mouse position in world coordinates.
+         */
+        public float mouseX;
+        public float mouseY;
+        public boolean growBranchMod;
+        public boolean growBranchButton;
+        public boolean growLeafMod;
+        public boolean growLeafButton;
+        public boolean jump;
+        public boolean left;
+        public boolean right;
+        public boolean drop;
+        public boolean exit;
+        public boolean mouse;
+        public boolean scrollReset;
+        /**
+         * Scroll wheel amount for this tick.
+         */
+        public float scroll;
+
+        /**
+         * Releases every control, leaving the mouse where it is.
+         */
+        public void clear() {
+            growBranchMod = false;
+            growBranchButton = false;
+            growLeafMod = false;
+            growLeafButton = false;
+            jump = false;
+            left = false;
+            right = false;
+            drop = false;
+            exit = false;
+            mouse = false;
+            scrollReset = false;
+            scroll = 0;
+        }
+
+    }
+
     public enum Binding {
         GROW_BRANCH_MOD_KEY,
         GROW_BRANCH_BUTTON,
@@ -0,0 +1,121 @@
+package com.syndic8.phytopolis;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the input of a level attempt, one entry per simulation tick.
+ * <p>
+ * The stream starts with a header holding the level key, the random seed
+ * and the tick length, followed by one entry per tick: a short of button
+ * flags, the mouse position in world coordinates and, if the wheel moved,
+ * the scroll amount. An InputReplay feeds the stream back to a headless
+ * simulation.
+ */
+public class InputRecorder {
+
+    /**
+     * Identifies a replay stream ("PHYR").
+     */
+    static final int MAGIC = 0x50485952;
+    static final int VERSION = 1;
+    static final int GROW_BRANCH_MOD = 1;
+    static final int GROW_BRANCH_BUTTON = 1 << 1;
+    static final int GROW_LEAF_MOD = 1 << 2;
+    static final int GROW_LEAF_BUTTON = 1 << 3;
+    static final int JUMP = 1 << 4;
+    static final int LEFT = 1 << 5;
+    static final int RIGHT = 1 << 6;
+    static final int DROP = 1 << 7;
+    static final int EXIT = 1 << 8;
+    static final int MOUSE = 1 << 9;
+    static final int SCROLL_RESET = 1 << 10;
+    /**
+     * Set if a scroll amount follows the mouse position.
+     */
+    static final int SCROLL = 1 << 11;
+    private final DataOutputStream out;
+    /**
+     * Scratch input the controller state is captured into.
+     */
+    private final InputController.TickInput tick;
+    private int ticks;
+
+    /**
+     * Starts a recording, writing the header to the given stream.
+     *
+     * @param stream the stream to write to; closed with the recorder.
+     * @param level  the level key, e.g. "gameplay:lvl1".
+     * @param seed   the seed the level was reset with.
+     * @param dt     the length of a tick in seconds.
+     */
+    public InputRecorder(OutputStream stream, String level, long seed, float dt) {
+        out = new DataOutputStream(new BufferedOutputStream(stream));
+        tick = new InputController.TickInput();
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(level);
+            out.writeLong(seed);
+            out.writeFloat(dt);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not start recording", e);
+        }
+    }
+
+    /**
+     * Records the input read for the current tick.
+     *
+     * @param ic    the input controller, after readInput.
+     * @param mouse the mouse position in world coordinates.
+     */
+    public void record(InputController ic, Vector2 mouse) {
+        ic.capture(tick);
+        int flags = 0;
+        if (tick.growBranchMod) flags |= GROW_BRANCH_MOD;
+        if (tick.growBranchButton) flags |= GROW_BRANCH_BUTTON;
+        if (tick.growLeafMod) flags |= GROW_LEAF_MOD;
+        if (tick.growLeafButton) flags |= GROW_LEAF_BUTTON;
+        if (tick.jump) flags |= JUMP;
+        if (tick.left) flags |= LEFT;
+        if (tick.right) flags |= RIGHT;
+        if (tick.drop) flags |= DROP;
+        if (tick.exit) flags |= EXIT;
+        if (tick.mouse) flags |= MOUSE;
+        if (tick.scrollReset) flags |= SCROLL_RESET;
+        if (tick.scroll != 0) flags |= SCROLL;
+        try {
+            out.writeShort(flags);
+            out.writeFloat(mouse.x);
+            out.writeFloat(mouse.y);
+            if (tick.scroll != 0) out.writeFloat(tick.scroll);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not record tick " + ticks, e);
+        }
+        ticks++;
+    }
+
+    /**
+     * @return the number of ticks recorded.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Flushes and closes the recording.
+     */
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not close recording", e);
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.syndic8.phytopolis;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.syndic8.phytopolis.InputRecorder.*;
+
+/**
+ * Plays back a stream written by an InputRecorder.
+ * <p>
+ * As a HeadlessSimulation.Script, this fills in one recorded tick each time
+ * it is applied and releases every control once the stream runs out. Ticks
+ * run as fast as the simulation allows.
+ */
+public class InputReplay implements HeadlessSimulation.Script {
+
+    private final DataInputStream in;
+    private final String level;
+    private final long seed;
+    private final float dt;
+    private boolean finished;
+
+    /**
+     * Opens a replay, reading its header from the given stream.
+     *
+     * @param stream the stream to read from; closed once it runs out.
+     */
+    public InputReplay(InputStream stream) {
+        in = new DataInputStream(new BufferedInputStream(stream));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new GdxRuntimeException("Not a replay stream");
+            }
+            level = in.readUTF();
+            seed = in.readLong();
+            dt = in.readFloat();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read replay header", e);
+        }
+    }
+
+    /**
+     * Plays a replay file to the end in a new headless simulation.
+     *
+     * @param assets the assets root, containing assets.json.
+     * @param file   the replay file.
+     * @return the simulation, stopped at the end of the recording
+     */
+    public static HeadlessSimulation play(FileHandle assets, FileHandle file) {
+        InputReplay replay = new InputReplay(file.read());
+        HeadlessSimulation sim = replay.createSimulation(assets);
+        while (sim.getOutcome() == HeadlessSimulation.Outcome.TIMEOUT) {
+            replay.apply(sim.getTicks(), sim.getWorld(), sim.getInput());
+            if (replay.isFinished()) break;
+            sim.step(replay.getDt());
+        }
+        return sim;
+    }
+
+    /**
+     * Creates a headless simulation of the recorded level, reset with the
+     * recorded seed.
+     *
+     * @param assets the assets root, containing assets.json.
+     * @return the simulation, ready to run this replay
+     */
+    public HeadlessSimulation createSimulation(FileHandle assets) {
+        HeadlessSimulation sim = new HeadlessSimulation(assets, level);
+        sim.getWorld().setSeed(seed);
+        sim.reset();
+        return sim;
+    }
+
+    @Override
+    public void apply(int tick,
+                      GameplayMode world,
+                      InputController.TickInput input) {
+        if (finished) return;
+        try {
+            int flags = in.readShort();
+            input.growBranchMod = (flags & GROW_BRANCH_MOD) != 0;
+            input.growBranchButton = (flags & GROW_BRANCH_BUTTON) != 0;
+            input.growLeafMod = (flags & GROW_LEAF_MOD) != 0;
+            input.growLeafButton = (flags & GROW_LEAF_BUTTON) != 0;
+            input.jump = (flags & JUMP) != 0;
+            input.left = (flags & LEFT) != 0;
+            input.right = (flags & RIGHT) != 0;
+            input.drop = (flags & DROP) != 0;
+            input.exit = (flags & EXIT) != 0;
+            input.mouse = (flags & MOUSE) != 0;
+            input.scrollReset = (flags & SCROLL_RESET) != 0;
+            input.mouseX = in.readFloat();
+            input.mouseY = in.readFloat();
+            input.scroll = (flags & SCROLL) != 0 ? in.readFloat() : 0;
+        } catch (EOFException e) {
+            finished = true;
+            input.clear();
+            close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read tick " + tick, e);
+        }
+    }
+
+    /**
+     * @return true if every recorded tick has been played.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getDt() {
+        return dt;
+    }
+
+    private void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not close replay", e);
+        }
+    }
+
+}
@@ -25,6 +25,10 @@ public class SoundController {
     private final JsonValue settingsJson;
     private final float masterVolume;
     private final DecimalFormat decimalFormat;
+    /**
+     * Whether this controller is muted for headless simulation
+     */
+    private final boolean silent;
     MusicQueue music;
     ArrayList<SoundEffect> sounds;
     private float fxVolume;
@@ -36,16 +40,37 @@ public class SoundController {
     }
 
     public SoundController() {
-        configFile = Gdx.files.absolute(OSUtils.getConfigFile());
-        JsonReader settingsJsonReader = new JsonReader();
-        settingsJson = settingsJsonReader.parse(configFile);
-        masterVolume = settingsJson.getFloat("masterVolume");
-        musicVolume = settingsJson.getFloat("musicVolume");
-        fxVolume = settingsJson.getFloat("fxVolume");
-
-        AudioEngine engine = (AudioEngine) Gdx.audio;
-        music = engine.newMusicBuffer(false, 44100);
-        music.setVolume(musicVolume);
+        this(false);
+    }
+
+    /**
+     * Creates a sound controller.
+     * <p>
+     * A silent controller never touches the audio engine or the config file,
+     * so it can be used without a running application.
+     *
+     * @param silent whether the controller should be muted
+     */
+    public SoundController(boolean silent) {
+        this.silent = silent;
+        if (silent) {
+            configFile = null;
+            settingsJson = null;
+            masterVolume = 0;
+            musicVolume = 0;
+            fxVolume = 0;
+        } else {
+            configFile = Gdx.files.absolute(OSUtils.getConfigFile());
+            JsonReader settingsJsonReader = new JsonReader();
+            settingsJson = settingsJsonReader.parse(configFile);
+            masterVolume = settingsJson.getFloat("masterVolume");
+            musicVolume = settingsJson.getFloat("musicVolume");
+            fxVolume = settingsJson.getFloat("fxVolume");
+
+            AudioEngine engine = (AudioEngine) Gdx.audio;
+            music = engine.newMusicBuffer(false, 44100);
+            music.setVolume(musicVolume);
+        }
         sounds = new ArrayList<>();
         DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
         decimalFormat = new DecimalFormat("#.000", symbols);
@@ -65,6 +90,7 @@ public class SoundController {
      *          return the position of the added music
      */
     public int addMusic(AudioSource a) {
+        if (silent) return -1;
         music.addSource(a);
         return music.getNumberOfSources() - 1;
     }
@@ -86,27 +112,33 @@ public class SoundController {
      * @param i the index of the sound to be played
      */
     public void playSound(int i) {
+        if (silent) return;
         sounds.get(i).play(fxVolume * FXSCALE);
     }
 
     public void stopSound(int i) {
+        if (silent) return;
         sounds.get(i).stop();
     }
 
     public void playMusic() {
+        if (silent) return;
         music.setVolume(musicVolume);
         music.play();
     }
 
     public void pauseMusic() {
+        if (silent) return;
         music.pause();
     }
 
     public void stopMusic() {
+        if (silent) return;
         music.stop();
     }
 
     public AudioSource getPlayingMusic() {
+        if (silent) return null;
         return music.getCurrent();
     }
 
@@ -121,10 +153,12 @@ public class SoundController {
     }
 
     public boolean isMusicPlaying() {
+        if (silent) return false;
         return music.isPlaying();
     }
 
     public void rewindMusic() {
+        if (silent) return;
         music.reset();
         setMusic(musicQueuePos);
         setLooping(true);
@@ -136,12 +170,14 @@ public class SoundController {
      * @param i the index of the song to be played
      */
     public void setMusic(int i) {
+        if (silent) return;
         musicQueuePos = i;
         music.setVolume(musicVolume);
         music.jumpToSource(i);
     }
 
     public void setLooping(boolean b) {
+        if (silent) return;
         music.setLooping(b);
         music.setLoopBehavior(true);
     }
@@ -151,6 +187,7 @@ public class SoundController {
     }
 
     public void setActualMusicVolume(float value) {
+        if (silent) return;
         music.setVolume(value);
     }
 
@@ -158,7 +195,7 @@ public class SoundController {
         switch (opn) {
             case MUSIC_VOLUME:
                 musicVolume = val;
-                music.setVolume(val);
+                setActualMusicVolume(val);
                 saveOptions();
                 break;
             case FX_VOLUME:
@@ -169,6 +206,7 @@ public class SoundController {
     }
 
     private void saveOptions() {
+        if (silent) return;
         settingsJson.get("masterVolume")
                 .set(Double.parseDouble(decimalFormat.format(masterVolume)),
                      null);
@@ -204,6 +242,7 @@ public class SoundController {
     //    }
 
     public boolean getIsLooping() {
+        if (silent) return false;
         return music.isLooping();
     }
 
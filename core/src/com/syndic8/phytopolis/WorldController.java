@@ -16,6 +16,7 @@
  */
 package com.syndic8.phytopolis;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Rectangle;
@@ -23,6 +24,9 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
 import com.syndic8.phytopolis.level.models.*;
 import com.syndic8.phytopolis.util.FadingScreen;
+import com.syndic8.phytopolis.util.FrameProfiler;
+import com.syndic8.phytopolis.util.FrameProfiler.Phase;
+import com.syndic8.phytopolis.util.OSUtils;
 import com.syndic8.phytopolis.util.PooledList;
 import com.syndic8.phytopolis.util.ScreenListener;
 
@@ -49,6 +53,17 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * The amount of time for a physics engine step.
      */
     public static final float WORLD_STEP = 1 / 60f;
+    /**
+     * How much faster Box2D runs than the game clock.
+     * <p>
+     * Gravity, jump force and movement speed were all tuned with every
+     * 1/60s tick advancing Box2D by 1/35s, so that ratio is kept here.
+     */
+    public static final float PHYSICS_TIME_SCALE = 60 / 35f;
+    /**
+     * Default limit on ticks per frame, to keep hitches from spiraling
+     */
+    public static final int MAX_STEPS_PER_FRAME = 5;
     /**
      * Number of velocity iterations for the constrain solvers
      */
@@ -85,7 +100,22 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * The world scale
      */
     protected Vector2 scale;
+    /**
+     * Timings of each phase of the frame
+     */
+    protected final FrameProfiler profiler = new FrameProfiler();
+    /**
+     * Amount of frame time not yet simulated
+     */
     private float accumulator = 0.0f;
+    /**
+     * The amount of time simulated per tick
+     */
+    private float step = WORLD_STEP;
+    /**
+     * The maximum number of ticks simulated per frame
+     */
+    private int maxSteps = MAX_STEPS_PER_FRAME;
     /**
      * Listener that will update the player mode when we are done
      */
@@ -169,21 +199,73 @@ public abstract class WorldController extends FadingScreen implements Screen {
         active = true;
     }
 
+    /**
+     * Sets the fixed timestep of the simulation.
+     * <p>
+     * Every tick runs preUpdate(), update() and postUpdate() with exactly
+     * this step, no matter the frame rate. If a frame needs more than
+     * maxSteps ticks to catch up, the rest of the backlog is dropped.
+     *
+     * @param step     The amount of time simulated per tick
+     * @param maxSteps The maximum number of ticks simulated per frame
+     */
+    public void setTimestep(float step, int maxSteps) {
+        assert step > 0 && maxSteps > 0 : "Invalid timestep";
+        this.step = step;
+        this.maxSteps = maxSteps;
+        accumulator = 0;
+    }
+
+    public float getTimestep() {
+        return step;
+    }
+
     /**
      * Called when the Screen should render itself.
      * <p>
-     * We defer to the other methods update() and draw().  However, it is VERY important
-     * that we only quit AFTER a draw.
+     * We run as many fixed ticks of update() as the frame time allows, then
+     * draw() with positions interpolated between the last two ticks.
+     * However, it is VERY important that we only quit AFTER a draw.
      *
      * @param delta Number of seconds since last animation frame
      */
     public void render(float delta) {
         if (active) {
-            if (preUpdate(delta)) {
-                update(delta); // This is the one that must be defined.
-                postUpdate(delta);
+            profiler.begin(Phase.FRAME);
+            accumulator += delta;
+            int steps = 0;
+            while (active && accumulator >= step && steps < maxSteps) {
+                accumulator -= step;
+                steps++;
+                if (!preUpdate(step)) break;
+                profiler.begin(Phase.UPDATE);
+                update(step); // This is the one that must be defined.
+                profiler.end(Phase.UPDATE);
+                postUpdate(step);
             }
+            // Drop any backlog we could not catch up on
+            if (accumulator >= step) accumulator %= step;
+            interpolate(accumulator / step);
+            profiler.begin(Phase.DRAW);
             draw();
+            profiler.end(Phase.DRAW);
+            profiler.end(Phase.FRAME);
+            profiler.endFrame();
+            profiler.draw(canvas);
+        }
+    }
+
+    /**
+     * Moves the drawn position of every physics object between its last
+     * two ticks.
+     *
+     * @param alpha Fraction of a tick since the last one (0 to 1)
+     */
+    protected void interpolate(float alpha) {
+        for (Model obj : objects) {
+            if (obj instanceof GameObject) {
+                ((GameObject) obj).interpolate(alpha);
+            }
         }
     }
 
@@ -199,8 +281,9 @@ public abstract class WorldController extends FadingScreen implements Screen {
      */
     public boolean preUpdate(float dt) {
         super.update(dt);
-        InputController input = InputController.getInstance();
+        InputController input = getInputController();
         input.readInput();
+        if (input.didToggleProfiler()) profiler.toggle();
         if (listener == null) {
             return true;
         }
@@ -241,7 +324,7 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * physics.  The primary method is the step() method in world.  This implementation
      * works for all applications and should not need to be overwritten.
      *
-     * @param dt Number of seconds since last animation frame
+     * @param dt Number of seconds in this tick
      */
     public void postUpdate(float dt) {
         // Add any objects created by actions
@@ -249,17 +332,18 @@ public abstract class WorldController extends FadingScreen implements Screen {
             addObject(addQueue.poll());
         }
 
-        // Turn the physics engine crank.
-        //world.step(1/35f, WORLD_VELOC, WORLD_POSIT);
-        // Accumulate time
-        accumulator += dt;
-
-        // Process fixed time steps
-        while (accumulator >= WORLD_STEP) {
-            world.step(1 / 35f, WORLD_VELOC, WORLD_POSIT);
-            accumulator -= WORLD_STEP;
+        // Remember where everything was for interpolation
+        for (Model obj : objects) {
+            if (obj instanceof GameObject) {
+                ((GameObject) obj).storePreviousPosition();
+            }
         }
 
+        // Turn the physics engine crank.
+        profiler.begin(Phase.PHYSICS);
+        world.step(dt * PHYSICS_TIME_SCALE, WORLD_VELOC, WORLD_POSIT);
+        profiler.end(Phase.PHYSICS);
+
         // Garbage collect the deleted objects.
         // Note how we use the linked list nodes to delete O(1) in place.
         // This is O(n) without copying.
@@ -288,11 +372,36 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * The method draws all objects in the order that they were added.
      */
     public void draw() {
+        boolean batched = false;
         for (Model obj : objects) {
-            obj.draw(canvas);
+            if (isBatched(obj)) {
+                if (!batched) drawBatched();
+                batched = true;
+            } else {
+                obj.draw(canvas);
+            }
         }
     }
 
+    /**
+     * Returns whether the object is drawn by drawBatched instead of by
+     * itself.
+     *
+     * @param obj the object.
+     * @return true if the object is batched.
+     */
+    protected boolean isBatched(Model obj) {
+        return false;
+    }
+
+    /**
+     * Draws all the batched objects at once. This is called in place of the
+     * first batched object, so batched objects should share a z-index range
+     * no other object uses.
+     */
+    protected void drawBatched() {
+    }
+
     /**
      * Returns true if the level is completed.
      * <p>
@@ -340,6 +449,23 @@ public abstract class WorldController extends FadingScreen implements Screen {
         objects.sort(Comparator.comparingInt(Model::getZIndex));
     }
 
+    /**
+     * Immediately adds all the objects to the physics world, sorting the
+     * object list only once.
+     *
+     * @param objs The objects to add
+     */
+    public void addObjects(Iterable<? extends Model> objs) {
+        for (Model obj : objs) {
+            assert inBounds(obj) : "Object is not in bounds";
+            objects.add(obj);
+            if (obj instanceof GameObject && !(obj instanceof Fire)) {
+                ((GameObject) obj).activatePhysics(world);
+            }
+        }
+        objects.sort(Comparator.comparingInt(Model::getZIndex));
+    }
+
     /**
      * Returns true if the object is in bounds.
      * <p>
@@ -410,6 +536,10 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * Dispose of all (non-static) resources allocated to this mode.
      */
     public void dispose() {
+        if (profiler.hasSamples() && !isHeadless()) {
+            profiler.dump(Gdx.files.absolute(
+                    OSUtils.getDataDirectory() + "/profile.csv"));
+        }
         for (Model obj : objects) {
             if (obj instanceof GameObject) {
                 ((GameObject) obj).deactivatePhysics(world);
@@ -435,12 +565,35 @@ public abstract class WorldController extends FadingScreen implements Screen {
      * The method draws all objects in the order that they were added.
      */
     public void drawLevelOver() {
+        boolean batched = false;
         for (Model obj : objects) {
-            if (obj instanceof Branch || obj instanceof Leaf ||
+            if (isBatched(obj)) {
+                if (!batched) drawBatched();
+                batched = true;
+            } else if (obj instanceof Branch || obj instanceof Leaf ||
                     obj instanceof Water) obj.draw(canvas);
         }
     }
 
+    /**
+     * @return the input controller read by this world.
+     */
+    protected InputController getInputController() {
+        return InputController.getInstance();
+    }
+
+    /**
+     * Returns true if this world has no canvas to draw to.
+     * <p>
+     * Headless worlds are stepped by a HeadlessSimulation and must never
+     * touch graphics, audio or cursor state.
+     *
+     * @return true if this world has no canvas to draw to.
+     */
+    public boolean isHeadless() {
+        return canvas == null;
+    }
+
     protected boolean isPaused() {
         return paused;
     }
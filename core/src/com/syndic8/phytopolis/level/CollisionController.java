@@ -17,6 +17,7 @@ public class CollisionController implements ContactListener {
     private final PlantController plantController;
     private final HazardController hazardController;
     private final InputController ic;
+    private final SoundController soundController;
     private final GameplayMode worldController;
     protected ObjectSet<Fixture> sensorFixtures;
     private boolean addedWater;
@@ -37,7 +38,8 @@ public class CollisionController implements ContactListener {
         resourceController = rsrc;
         plantController = plt;
         hazardController = hzd;
-        ic = InputController.getInstance();
+        ic = c.getInputController();
+        soundController = c.getSoundController();
 
     }
 
@@ -49,20 +51,30 @@ public class CollisionController implements ContactListener {
         addedWater = value;
     }
 
+    /**
+     * Returns the model the given fixture belongs to. Leaves share a body
+     * per row, so a leaf fixture carries its leaf; any other fixture belongs
+     * to the model of its body.
+     *
+     * @param fixture the fixture.
+     */
+    private static Model modelOf(Fixture fixture) {
+        Object data = fixture.getUserData();
+        if (data instanceof Model) return (Model) data;
+        return (Model) fixture.getBody().getUserData();
+    }
+
     @Override
     public void beginContact(Contact contact) {
         Fixture fix1 = contact.getFixtureA();
         Fixture fix2 = contact.getFixtureB();
 
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
-
         Object fd1 = fix1.getUserData();
         Object fd2 = fix2.getUserData();
 
         try {
-            Model bd1 = (Model) body1.getUserData();
-            Model bd2 = (Model) body2.getUserData();
+            Model bd1 = modelOf(fix1);
+            Model bd2 = modelOf(fix2);
 
             // See if we have landed on the ground.
             if ((player.getSensorName().equals(fd2) && player != bd1 &&
@@ -97,15 +109,15 @@ public class CollisionController implements ContactListener {
                                     bd2.getType() == Model.ModelType.BUG);
             if (isCollisionBetweenPlayerAndBug) {
                 Bug b;
-                if (((Model) fix1.getBody().getUserData()).getType() ==
+                if (modelOf(fix1).getType() ==
                         Model.ModelType.BUG) {
-                    b = (Bug) fix1.getBody().getUserData();
+                    b = (Bug) modelOf(fix1);
                 } else {
-                    b = (Bug) fix2.getBody().getUserData();
+                    b = (Bug) modelOf(fix2);
                 }
                 hazardController.removeHazard(b);
                 plantController.removeHazardFromNodes(b);
-                SoundController.getInstance().playSound(bugStompSound);
+                soundController.playSound(bugStompSound);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -118,14 +130,11 @@ public class CollisionController implements ContactListener {
         Fixture fix1 = contact.getFixtureA();
         Fixture fix2 = contact.getFixtureB();
 
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
-
         Object fd1 = fix1.getUserData();
         Object fd2 = fix2.getUserData();
 
-        Object bd1 = body1.getUserData();
-        Object bd2 = body2.getUserData();
+        Model bd1 = modelOf(fix1);
+        Model bd2 = modelOf(fix2);
 
         if ((player.getSensorName().equals(fd2) && player != bd1) ||
                 (player.getSensorName().equals(fd1) && player != bd2)) {
@@ -135,8 +144,8 @@ public class CollisionController implements ContactListener {
             }
 
             try {
-                if (((Model) bd1).getType() == Model.ModelType.LEAF ||
-                        ((Model) bd2).getType() == Model.ModelType.LEAF) {
+                if (bd1.getType() == Model.ModelType.LEAF ||
+                        bd2.getType() == Model.ModelType.LEAF) {
                     Leaf l = (Leaf) (player == bd1 ? bd2 : bd1);
                     if (l.getLeafType() == Leaf.leafType.BOUNCY) {
                         player.setBouncy(false);
@@ -158,8 +167,8 @@ public class CollisionController implements ContactListener {
         Fixture fix2 = contact.getFixtureB();
         Object fd1 = fix1.getUserData();
         Object fd2 = fix2.getUserData();
-        Model bd1 = (Model) fix1.getBody().getUserData();
-        Model bd2 = (Model) fix2.getBody().getUserData();
+        Model bd1 = modelOf(fix1);
+        Model bd2 = modelOf(fix2);
         boolean isCollisionBetweenPlayerSensorAndBug =
                 (player.getSensorName().equals(fd2) && player != bd1 &&
                         bd1.getType() == Model.ModelType.BUG) ||
@@ -167,100 +176,88 @@ public class CollisionController implements ContactListener {
                                 bd2.getType() == Model.ModelType.BUG);
         boolean isCollisionBetweenPlayerAndBug =
                 (fix1.getBody() == player.getBody() &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.BUG) ||
                         (fix2.getBody() == player.getBody() &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.BUG);
         boolean isCollisionBetweenPlayerAndLeaf =
                 (fix1.getBody() == player.getBody() &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.LEAF) ||
                         (fix2.getBody() == player.getBody() &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.LEAF);
         boolean isCollisionBetweenPlayerAndNoTopTile =
                 (fix1.getBody() == player.getBody() &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.TILE_NOTOP) ||
                         (fix2.getBody() == player.getBody() &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.TILE_NOTOP);
         boolean isCollisionBetweenPlayerAndWater =
                 (fix1.getBody() == player.getBody() &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.WATER) ||
                         (fix2.getBody() == player.getBody() &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.WATER);
         boolean isCollisionBetweenPlayerAndSun =
                 (fix1.getBody() == player.getBody() &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.SUN) ||
                         (fix2.getBody() == player.getBody() &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.SUN);
         boolean isCollisionBetweenLeafAndSun =
-                (((Model) fix1.getBody().getUserData()).getType() ==
+                (modelOf(fix1).getType() ==
                         Model.ModelType.LEAF &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.SUN) ||
-                        (((Model) fix2.getBody().getUserData()).getType() ==
-                                Model.ModelType.LEAF && ((Model) fix1.getBody()
-                                .getUserData()).getType() ==
+                        (modelOf(fix2).getType() ==
+                                Model.ModelType.LEAF && modelOf(fix1).getType() ==
                                 Model.ModelType.SUN);
         boolean isCollisionBetweenPlatformAndSun =
-                ((((Model) fix1.getBody().getUserData()).getType() ==
+                ((modelOf(fix1).getType() ==
                         Model.ModelType.PLATFORM) &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.SUN) ||
-                        (((Model) fix2.getBody().getUserData()).getType() ==
+                        (modelOf(fix2).getType() ==
                                 Model.ModelType.PLATFORM &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.SUN);
         boolean isCollisionBetweenWaterAndSun =
-                ((((Model) fix1.getBody().getUserData()).getType() ==
+                ((modelOf(fix1).getType() ==
                         Model.ModelType.WATER) &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.SUN) ||
-                        (((Model) fix2.getBody().getUserData()).getType() ==
-                                Model.ModelType.WATER && ((Model) fix1.getBody()
-                                .getUserData()).getType() ==
+                        (modelOf(fix2).getType() ==
+                                Model.ModelType.WATER && modelOf(fix1).getType() ==
                                 Model.ModelType.SUN);
         boolean isCollisionBetweenTileAndSun =
-                (((Model) fix1.getBody().getUserData()).getType() ==
+                (modelOf(fix1).getType() ==
                         Model.ModelType.TILE_NOTOP &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.SUN) ||
-                        (((Model) fix2.getBody().getUserData()).getType() ==
+                        (modelOf(fix2).getType() ==
                                 Model.ModelType.TILE_NOTOP &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.SUN) ||
-                        (((Model) fix1.getBody().getUserData()).getType() ==
+                        (modelOf(fix1).getType() ==
                                 Model.ModelType.TILE_FULL &&
-                                ((Model) fix2.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix2).getType() ==
                                         Model.ModelType.SUN) ||
-                        (((Model) fix2.getBody().getUserData()).getType() ==
+                        (modelOf(fix2).getType() ==
                                 Model.ModelType.TILE_FULL &&
-                                ((Model) fix1.getBody()
-                                        .getUserData()).getType() ==
+                                modelOf(fix1).getType() ==
                                         Model.ModelType.SUN);
         boolean isCollisionBetweenBugAndBouncy =
-                (((Model) fix1.getBody().getUserData()).getType() ==
+                (modelOf(fix1).getType() ==
                         Model.ModelType.LEAF &&
-                        ((Model) fix2.getBody().getUserData()).getType() ==
+                        modelOf(fix2).getType() ==
                                 Model.ModelType.BUG) ||
-                        (((Model) fix1.getBody().getUserData()).getType() ==
-                                Model.ModelType.BUG && ((Model) fix2.getBody()
-                                .getUserData()).getType() ==
+                        (modelOf(fix1).getType() ==
+                                Model.ModelType.BUG && modelOf(fix2).getType() ==
                                 Model.ModelType.LEAF);
 
         if (isCollisionBetweenPlayerAndSun ||
@@ -271,12 +268,12 @@ public class CollisionController implements ContactListener {
         if (isCollisionBetweenTileAndSun) {
             Sun s;
             Tile t;
-            if (fix1.getBody().getUserData() instanceof Sun) {
-                s = (Sun) fix1.getBody().getUserData();
-                t = (Tile) fix2.getBody().getUserData();
+            if (modelOf(fix1) instanceof Sun) {
+                s = (Sun) modelOf(fix1);
+                t = (Tile) modelOf(fix2);
             } else {
-                s = (Sun) fix2.getBody().getUserData();
-                t = (Tile) fix1.getBody().getUserData();
+                s = (Sun) modelOf(fix2);
+                t = (Tile) modelOf(fix1);
             }
             if (t.getType() == Model.ModelType.TILE_FULL && !s.isFading())
                 s.startFade(s.getY());
@@ -284,13 +281,13 @@ public class CollisionController implements ContactListener {
         if (isCollisionBetweenBugAndBouncy) {
             Bug b;
             Leaf l;
-            if (((Model) fix1.getBody().getUserData()).getType() ==
+            if (modelOf(fix1).getType() ==
                     Model.ModelType.BUG) {
-                b = (Bug) fix1.getBody().getUserData();
-                l = (Leaf) fix2.getBody().getUserData();
+                b = (Bug) modelOf(fix1);
+                l = (Leaf) modelOf(fix2);
             } else {
-                b = (Bug) fix2.getBody().getUserData();
-                l = (Leaf) fix1.getBody().getUserData();
+                b = (Bug) modelOf(fix2);
+                l = (Leaf) modelOf(fix1);
             }
 
             if (l.getLeafType() == Leaf.leafType.BOUNCY) {
@@ -301,13 +298,13 @@ public class CollisionController implements ContactListener {
         if (isCollisionBetweenLeafAndSun) {
             Sun s;
             Leaf l;
-            if (((Model) fix1.getBody().getUserData()).getType() ==
+            if (modelOf(fix1).getType() ==
                     Model.ModelType.SUN) {
-                s = (Sun) fix1.getBody().getUserData();
-                l = (Leaf) fix2.getBody().getUserData();
+                s = (Sun) modelOf(fix1);
+                l = (Leaf) modelOf(fix2);
             } else {
-                s = (Sun) fix2.getBody().getUserData();
-                l = (Leaf) fix1.getBody().getUserData();
+                s = (Sun) modelOf(fix2);
+                l = (Leaf) modelOf(fix1);
             }
 
             l.setSun(true);
@@ -321,21 +318,21 @@ public class CollisionController implements ContactListener {
                                                     worldController.getTilemap()
                                                             .getTilemapParams()));
             uiController.addTime();
-            SoundController.getInstance().playSound(sunSound);
+            soundController.playSound(sunSound);
         }
         if (isCollisionBetweenPlayerAndWater) {
             contact.setEnabled(false);
             Water w;
-            if (((Model) fix1.getBody().getUserData()).getType() ==
+            if (modelOf(fix1).getType() ==
                     Model.ModelType.WATER) {
-                w = (Water) fix1.getBody().getUserData();
+                w = (Water) modelOf(fix1);
             } else {
-                w = (Water) fix2.getBody().getUserData();
+                w = (Water) modelOf(fix2);
             }
             if (w.isFull() && !resourceController.fullWater()) {
                 w.clear();
                 resourceController.pickupWater();
-                SoundController.getInstance().playSound(waterCollectSound);
+                soundController.playSound(waterCollectSound);
                 uiController.setWaterSize(1.2f);
                 setAddedWater(true);
                 worldController.addObject(new Indicator(w.getX(),
@@ -353,11 +350,11 @@ public class CollisionController implements ContactListener {
         if (fix1.getBody() == player.getBody()) {
             isPlayerBelow =
                     fix1.getBody().getPosition().y - player.getHeight() / 2f <
-                            fix2.getBody().getPosition().y + LEAF_HEIGHT / 2f;
+                            modelOf(fix2).getY() + LEAF_HEIGHT / 2f;
         } else if (fix2.getBody() == player.getBody()) {
             isPlayerBelow =
                     fix2.getBody().getPosition().y - player.getHeight() / 2f <
-                            fix1.getBody().getPosition().y;
+                            modelOf(fix1).getY();
         }
         if (isCollisionBetweenPlayerAndLeaf &&
                 (isPlayerGoingUp || isPlayerBelow || ic.isDropKeyDown())) {
@@ -370,11 +367,11 @@ public class CollisionController implements ContactListener {
         if (isCollisionBetweenPlayerAndBug) {
             if (isPlayerGoingDown && isCollisionBetweenPlayerSensorAndBug) {
                 Bug b;
-                if (((Model) fix1.getBody().getUserData()).getType() ==
+                if (modelOf(fix1).getType() ==
                         Model.ModelType.BUG) {
-                    b = (Bug) fix1.getBody().getUserData();
+                    b = (Bug) modelOf(fix1);
                 } else {
-                    b = (Bug) fix2.getBody().getUserData();
+                    b = (Bug) modelOf(fix2);
                 }
                 hazardController.despawnBug(b);
                 plantController.removeHazardFromNodes(b);
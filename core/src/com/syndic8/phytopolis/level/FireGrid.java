@@ -0,0 +1,380 @@
+package com.syndic8.phytopolis.level;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.syndic8.phytopolis.level.models.Fire;
+
+import java.util.Arrays;
+
+/**
+ * The fires burning on the plant, simulated as a cellular automaton over the
+ * plant grid.
+ * <p>
+ * Every cell has one byte of state, 1 while burning, and a burn timer.
+ * Each hazard tick, a pass over the burning cells counts their timers down,
+ * and the cells that burn out light their neighbours on the hex grid. The
+ * pass only reads the current state and only writes the next one, so the
+ * outcome does not depend on the order of the cells; the buffers are then
+ * swapped. A pass costs time in the number of burning cells, not in the size
+ * of the plant.
+ * <p>
+ * Fires have no models of their own. Only the cells on screen get a Fire to
+ * be drawn with, which is dropped when they leave the screen or go out.
+ */
+public class FireGrid {
+
+    /**
+     * Reference to the PlantController.
+     */
+    private final PlantController plantController;
+    /**
+     * Width of the plant grid.
+     */
+    private final int width;
+    /**
+     * Number of hazard ticks a fire burns for.
+     */
+    private final int burnTime;
+    /**
+     * Time left for every burning cell, in hazard ticks.
+     */
+    private final int[] timers;
+    /**
+     * Simulated time every burning cell was lit at.
+     */
+    private final float[] litAt;
+    /**
+     * Cell of every burning node, in no particular order.
+     */
+    private final IntArray burning = new IntArray(false, 16);
+    /**
+     * Index in the burning cells of every cell, -1 if not burning.
+     */
+    private final int[] slots;
+    /**
+     * Cells lit or burnt out by the current pass.
+     */
+    private final IntArray changed = new IntArray(false, 16);
+    /**
+     * The Fire drawing every burning cell on screen, null elsewhere.
+     */
+    private final Fire[] visuals;
+    /**
+     * Where Fires go once dropped, to be reused.
+     */
+    private final HazardController.HazardPool<Fire> pool;
+    /**
+     * State of every cell, 1 if burning.
+     */
+    private byte[] state;
+    /**
+     * State of every cell after the current pass.
+     */
+    private byte[] next;
+    /**
+     * Simulated time since the reset, in seconds.
+     */
+    private float time;
+    /**
+     * Number of fires lit since the reset, including spread.
+     */
+    private int started;
+
+    /**
+     * Creates a fire grid over the given plant with nothing burning.
+     *
+     * @param pc       the plant the fires burn on.
+     * @param burnTime the number of hazard ticks a fire burns for.
+     * @param pool     the pool to return dropped Fires to.
+     */
+    public FireGrid(PlantController pc,
+                    int burnTime,
+                    HazardController.HazardPool<Fire> pool) {
+        plantController = pc;
+        width = pc.getWidth();
+        this.burnTime = burnTime;
+        this.pool = pool;
+        int cells = width * pc.getHeight();
+        state = new byte[cells];
+        next = new byte[cells];
+        timers = new int[cells];
+        litAt = new float[cells];
+        slots = new int[cells];
+        Arrays.fill(slots, -1);
+        visuals = new Fire[cells];
+    }
+
+    /**
+     * Lights a fire at the given node, if nothing is there yet.
+     *
+     * @param x x-index of the node.
+     * @param y y-index of the node.
+     * @return whether a fire was lit
+     */
+    public boolean ignite(int x, int y) {
+        int c = y * width + x;
+        if (!canIgnite(x, y, c)) return false;
+        light(c, burnTime);
+        next[c] = 1;
+        started++;
+        return true;
+    }
+
+    /**
+     * Lights a saved fire at the given node, without checking the node nor
+     * counting the fire as started.
+     *
+     * @param x     x-index of the node.
+     * @param y     y-index of the node.
+     * @param timer the saved timer of the fire.
+     */
+    public void restore(int x, int y, int timer) {
+        int c = y * width + x;
+        if (state[c] != 0) return;
+        light(c, timer);
+        next[c] = 1;
+    }
+
+    /**
+     * Puts out the fire at the given cell, without spreading it nor
+     * destroying the node.
+     *
+     * @param c the cell.
+     */
+    public void extinguish(int c) {
+        if (state[c] == 0) return;
+        state[c] = 0;
+        next[c] = 0;
+        unlight(c);
+    }
+
+    /**
+     * Puts out every fire.
+     */
+    public void clear() {
+        while (burning.size > 0) {
+            extinguish(burning.peek());
+        }
+    }
+
+    /**
+     * Advances the time of the fires, putting out any left floating by a
+     * destroyed node. Fires only burn down on hazard ticks.
+     *
+     * @param dt the simulated time since the last update.
+     */
+    public void update(float dt) {
+        time += dt;
+        for (int i = burning.size - 1; i >= 0; i--) {
+            int c = burning.get(i);
+            int x = c % width;
+            int y = c / width;
+            if (plantController.nodeIsEmpty(x, y) &&
+                    !plantController.canGrowAtIndex(x, y)) {
+                extinguish(c);
+            }
+        }
+    }
+
+    /**
+     * Runs one pass of the automaton, on a hazard tick: counts every timer
+     * down, burns out the cells whose timers ran out and lights their
+     * neighbours, then swaps the buffers.
+     */
+    public void tick() {
+        changed.clear();
+        for (int i = 0; i < burning.size; i++) {
+            int c = burning.get(i);
+            if (--timers[c] > 0) continue;
+            next[c] = 0;
+            changed.add(c);
+            spread(c % width, c / width);
+        }
+        byte[] t = state;
+        state = next;
+        next = t;
+        for (int i = 0; i < changed.size; i++) {
+            int c = changed.get(i);
+            next[c] = state[c];
+            if (state[c] != 0) {
+                // Lit by this pass
+                light(c, timers[c]);
+                started++;
+            } else {
+                unlight(c);
+                plantController.scheduleDestruction(c % width, c / width);
+            }
+        }
+    }
+
+    /**
+     * Lights the neighbours of a cell that burnt out: the nodes above it
+     * with any plant at them, and the nodes below it with a branch up to
+     * it.
+     *
+     * @param x x-index of the node.
+     * @param y y-index of the node.
+     */
+    private void spread(int x, int y) {
+        for (int dx = -1; dx <= 1; dx++) {
+            if (plantController.inBounds(x + dx, y + 1) &&
+                    !plantController.nodeIsEmpty(x + dx, y + 1)) {
+                spreadTo(x + dx, y + 1);
+            }
+        }
+        if (plantController.branchExists(x - 1,
+                                         y - 1,
+                                         PlantController.BranchDirection.RIGHT)) {
+            spreadTo(x - 1, y - 1);
+        }
+        if (plantController.branchExists(x + 1,
+                                         y - 1,
+                                         PlantController.BranchDirection.LEFT)) {
+            spreadTo(x + 1, y - 1);
+        }
+        if (plantController.branchExists(x,
+                                         y - 1,
+                                         PlantController.BranchDirection.MIDDLE)) {
+            spreadTo(x, y - 1);
+        }
+    }
+
+    /**
+     * Lights the given node in the next state, if it can burn.
+     *
+     * @param x x-index of the node.
+     * @param y y-index of the node.
+     */
+    private void spreadTo(int x, int y) {
+        int c = y * width + x;
+        if (next[c] != 0 || !canIgnite(x, y, c)) return;
+        next[c] = 1;
+        // Spread fires have always burned through the tick that lit them
+        timers[c] = burnTime - 1;
+        changed.add(c);
+    }
+
+    /**
+     * Returns whether a fire may be lit at the given node.
+     *
+     * @param x x-index of the node.
+     * @param y y-index of the node.
+     * @param c the cell of the node.
+     */
+    private boolean canIgnite(int x, int y, int c) {
+        return state[c] == 0 && !plantController.hasHazard(x, y) &&
+                (y != 0 || plantController.isColumnOffset(x));
+    }
+
+    /**
+     * Marks the given cell as burning in the current state.
+     *
+     * @param c     the cell.
+     * @param timer its burn timer.
+     */
+    private void light(int c, int timer) {
+        state[c] = 1;
+        timers[c] = timer;
+        litAt[c] = time;
+        slots[c] = burning.size;
+        burning.add(c);
+        plantController.setFire(c % width, c / width);
+    }
+
+    /**
+     * Forgets the burning cell after it went out, and clears its node and
+     * its Fire.
+     *
+     * @param c the cell.
+     */
+    private void unlight(int c) {
+        // Fill the hole with the last burning cell
+        int slot = slots[c];
+        slots[c] = -1;
+        int last = burning.pop();
+        if (slot < burning.size) {
+            burning.set(slot, last);
+            slots[last] = slot;
+        }
+        plantController.removeFire(c % width, c / width);
+        setVisual(c, null);
+    }
+
+    /**
+     * Returns the burning cell whose node is within half a unit of the
+     * given position on both axes, -1 if none.
+     *
+     * @param pos the position, in world coordinates.
+     */
+    public int cellNear(Vector2 pos) {
+        for (int i = 0; i < burning.size; i++) {
+            int c = burning.get(i);
+            Vector2 node = plantController.indexToWorldCoord(c % width,
+                                                             c / width);
+            if (Math.abs(pos.x - node.x) < .5 &&
+                    Math.abs(pos.y - node.y) < .5) return c;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the cell of every burning node, in no particular order.
+     */
+    public IntArray getBurning() {
+        return burning;
+    }
+
+    /**
+     * Returns the burn timer of the given cell.
+     *
+     * @param c the cell.
+     */
+    public int getTimer(int c) {
+        return timers[c];
+    }
+
+    /**
+     * @return the number of hazard ticks a fire burns for.
+     */
+    public int getBurnTime() {
+        return burnTime;
+    }
+
+    /**
+     * Returns how long the given cell has been burning, in seconds.
+     *
+     * @param c the cell.
+     */
+    public float getAge(int c) {
+        return time - litAt[c];
+    }
+
+    /**
+     * @return the number of fires lit since the reset, including spread.
+     */
+    public int getStarted() {
+        return started;
+    }
+
+    /**
+     * Returns the Fire drawing the given cell, null if none.
+     *
+     * @param c the cell.
+     */
+    public Fire getVisual(int c) {
+        return visuals[c];
+    }
+
+    /**
+     * Sets the Fire drawing the given cell, returning any previous one to
+     * the pool.
+     *
+     * @param c    the cell.
+     * @param fire the new Fire, null if none.
+     */
+    public void setVisual(int c, Fire fire) {
+        if (visuals[c] != null) pool.retire(visuals[c]);
+        visuals[c] = fire;
+    }
+
+}
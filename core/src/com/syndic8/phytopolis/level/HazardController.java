@@ -4,6 +4,9 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.ObjectSet;
 import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.SoundController;
@@ -13,11 +16,12 @@ import com.syndic8.phytopolis.util.FilmStrip;
 import com.syndic8.phytopolis.util.PooledList;
 import com.syndic8.phytopolis.util.RandomController;
 import com.syndic8.phytopolis.util.Tilemap;
+import com.syndic8.phytopolis.util.TimingWheel;
 import edu.cornell.gdiac.audio.SoundEffect;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Random;
 
 import static com.syndic8.phytopolis.level.models.Model.ModelType.BUG;
 import static com.syndic8.phytopolis.level.models.Model.ModelType.FIRE;
@@ -27,7 +31,8 @@ public class HazardController {
     /**
      * Random number generator for various hazard generation.
      */
-    private final Random random = RandomController.generator;
+    private final RandomController random;
+    private final SoundController soundController;
     /**
      * Frame counter to switch from yellow and red warning.
      */
@@ -40,7 +45,6 @@ public class HazardController {
      * Reference to the PlantController.
      */
     private final ResourceController resourceController;
-    private final PooledList<Vector2> validFireLocs;
     private final float FIRE_BUFFER_ABOVE;
     private final float FIRE_BUFFER_BELOW;
     /**
@@ -79,7 +83,15 @@ public class HazardController {
     ArrayList<Integer> bugNodes;
     PooledList<Hazard> addList;
     PooledList<Vector2> bugSpreadNodes;
-    private BugZone[] bugZones;
+    private BugZone[] bugZones = new BugZone[0];
+    /**
+     * Removed bugs, kept with their bodies parked to be reused.
+     */
+    private final HazardPool<Bug> bugPool = new HazardPool<>();
+    /**
+     * Removed fire visuals, kept to be reused.
+     */
+    private final HazardPool<Fire> firePool = new HazardPool<>();
     /**
      * The frequency at which fires are generated (probability = 1 / fireFrequency) every second.
      */
@@ -118,14 +130,32 @@ public class HazardController {
      */
     private Tilemap tilemap;
     /**
-     * Update timer for hazards
+     * The wheel hazard ticks and bug spawns are scheduled on
      */
-    private long lastUpdateTime;
+    private final TimingWheel scheduler;
+    /**
+     * Runs a hazard tick every second of game time
+     */
+    private final TimingWheel.Task hazardTick =
+            new TimingWheel.Task(this::tickHazards);
     private TextureRegion greenWarningTexture;
     private TextureRegion greenWarningFlashTexture;
     private TextureRegion greenArrowDownTexture;
     private TextureRegion greenArrowUpTexture;
-    private PooledList<Float> powerlineHeights;
+    private FloatArray powerlineHeights;
+    /**
+     * The nodes a fire could start at around every powerline, in the order
+     * of the powerlines.
+     */
+    private FireBand[] fireBands = new FireBand[0];
+    /**
+     * The fires burning on the plant.
+     */
+    private FireGrid fires;
+    /**
+     * Fires made for cells that came on screen, to be added to the world.
+     */
+    private final PooledList<Fire> newFires = new PooledList<>();
     private float fireProgress;
     private int extinguishSound;
     private int electricShock;
@@ -147,6 +177,11 @@ public class HazardController {
      * @param plantController The PlantController instance associated with this HazardController.
      * @param fireFrequency   The frequency at which fires are generated.
      * @param burnTime        The time duration for which fires burn.
+     * @param random          The random stream for hazards; bug zones split
+     *                        their own streams from it.
+     * @param sc              The sound controller to play hazard sounds on.
+     * @param scheduler       The wheel to schedule hazard ticks and bug
+     *                        spawns on.
      */
     public HazardController(PlantController plantController,
                             int fireFrequency,
@@ -154,7 +189,13 @@ public class HazardController {
                             int burnTime,
                             int explodeTime,
                             int eatTime,
-                            Tilemap tm) {
+                            Tilemap tm,
+                            RandomController random,
+                            SoundController sc,
+                            TimingWheel scheduler) {
+        this.random = random;
+        this.scheduler = scheduler;
+        soundController = sc;
         this.fireFrequency = fireFrequency;
         this.bugFrequency = bugFrequency;
         this.plantController = plantController;
@@ -166,13 +207,13 @@ public class HazardController {
         fireNodes = new ArrayList<>();
         bugNodes = new ArrayList<>();
         addList = new PooledList<>();
-        validFireLocs = new PooledList<>();
         height = plantController.getHeight();
         width = plantController.getWidth();
         tilemap = tm;
         fireProgress = 0;
         FIRE_BUFFER_ABOVE = tilemap.getTileHeight() / 2f;
         FIRE_BUFFER_BELOW = FIRE_BUFFER_ABOVE;
+        fires = new FireGrid(plantController, burnTime, firePool);
     }
 
     public void reset(int fireFrequency,
@@ -186,13 +227,13 @@ public class HazardController {
         this.burnTime = burnTime;
         this.explodeTime = explodeTime;
         this.eatTime = eatTime;
+        for (BugZone zone : bugZones) {
+            scheduler.cancel(zone.spawnTask);
+        }
+        scheduler.schedule(hazardTick, 1);
         hazards = new ArrayList<>();
         fireNodes = new ArrayList<>();
         bugNodes = new ArrayList<>();
-        bugZones = new BugZone[tm.getBugYVals().size()];
-        for (int i = 0; i < tm.getBugYVals().size(); i++) {
-            bugZones[i] = new BugZone(tm.getBugYVals().get(i), i);
-        }
         addList = new PooledList<>();
         bugSpreadNodes = new PooledList<>();
         height = plantController.getHeight();
@@ -200,6 +241,21 @@ public class HazardController {
         powerlineHeights = tm.getPowerlineYVals();
         tilemap = tm;
         fireProgress = 0;
+        // Parked bodies went with the old world
+        bugPool.clear();
+        firePool.clear();
+        fires = new FireGrid(plantController, burnTime, firePool);
+        fireBands = new FireBand[powerlineHeights.size];
+        for (int i = 0; i < powerlineHeights.size; i++) {
+            fireBands[i] = new FireBand(powerlineHeights.get(i));
+            fireBands[i].rescan();
+        }
+        FloatArray bugYVals = tm.getBugYVals();
+        bugZones = new BugZone[bugYVals.size];
+        for (int i = 0; i < bugYVals.size; i++) {
+            bugZones[i] = new BugZone(bugYVals.get(i), i);
+            bugZones[i].rescan();
+        }
     }
 
     //    public Hazard generateHazard(Model.ModelType type) {
@@ -220,7 +276,7 @@ public class HazardController {
      * for generating and managing both fire and drone hazards, including their effects
      * on plant nodes.
      *
-     * @return list of new Fire objects to add
+     * @return list of new hazards to add
      */
     public PooledList<Hazard> updateHazards(float dt) {
         addList.clear();
@@ -232,94 +288,73 @@ public class HazardController {
             bugZones[i].update(dt);
         }
         if (fireProgress >= 100) {
-            findValidFireLocs();
-            Fire fire = generateFire();
-            addList.add(fire);
-            if (fire != null)
-                SoundController.getInstance().playSound(electricShock);
-            else SoundController.getInstance().playSound(extinguishSound);
+            if (generateFire())
+                soundController.playSound(electricShock);
+            else soundController.playSound(extinguishSound);
             fireProgress = 0;
         }
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastUpdateTime >=
-                1000) { // Check if one second has passed
-            lastUpdateTime = currentTime; // Reset the last update time
-            //            addList.add(generateDrone());
-            //            addList.add(generateBug());
-        }
-        int i = 0;
-        while (i < hazards.size()) {
-            Hazard h = hazards.get(i);
-            int hx = (int) h.getLocation().x;
-            int hy = (int) h.getLocation().y;
-            if (h instanceof Fire f) {
-                // check if branch is still there (floating fire bug)
-
-                if (plantController.nodeIsEmpty(hx, hy) &&
-                        !plantController.canGrowAtIndex(hx, hy)) {
-                    removeHazard(h);
-                    plantController.removeHazardFromNodes(h);
-                    continue; // Continue to next hazard after removing
-                }
-
-                if (lastUpdateTime == currentTime) {
-                    // spread fire if the time is right, otherwise decrement timer
-                    if (h.tick()) {
-                        removeHazard(h);
-                        plantController.removeHazardFromNodes(h);
-                        if (h instanceof Fire) {
-                            plantController.scheduleDestruction(hx, hy);
-                            plantController.recalculateMaxPlantIndex();
-                            spreadFire(h.getLocation());
-                        }
-                    }
-                }
-            }
-
-            i++;
-        }
+        fires.update(dt);
         addList.removeAll(Collections.singleton(null));
         return addList;
     }
 
+    /**
+     * Runs a hazard tick, then schedules the next one a second of game time
+     * after this one was due, so replays match.
+     */
+    private void tickHazards() {
+        fires.tick();
+        scheduler.repeat(hazardTick, 1);
+    }
+
     public void despawnBug(Bug b) {
         bugZones[b.getZoneIndex()].despawnBug(b);
     }
 
-    public boolean findValidFireLocs() {
-        validFireLocs.clear();
-        for (float height : powerlineHeights) {
-            if (plantController.getMaxPlantHeight() >=
-                    height - 0.5f * tilemap.getTileHeight()) {
-                int max = plantController.coordToIndex(0,
-                                                       height +
-                                                               FIRE_BUFFER_ABOVE +
-                                                               0.5f *
-                                                                       tilemap.getTileHeight()).y;
-                int min = plantController.coordToIndex(0,
-                                                       height -
-                                                               FIRE_BUFFER_BELOW +
-                                                               0.5f *
-                                                                       tilemap.getTileHeight()).y;
-                for (int i = min; i <= max; i++) {
-                    if (i != 0) {
-                        for (int width = 0;
-                             width < plantController.getWidth();
-                             width++) {
-                            int idx = i;
-                            if (i == max &&
-                                    plantController.isColumnOffset(width))
-                                continue; // If the node is at the max height
-                            // and it's offset then it's too far visually
-                            if (isValidFireLocation(width, i)) {
-                                validFireLocs.add(new Vector2(width, i));
-                            }
-                        }
-                    }
+    /**
+     * Brings the fire sites of every powerline and the leaf sites of every
+     * bug zone up to date with the changes to the plant since the last call.
+     */
+    private void syncSites() {
+        if (plantController.sitesRebuilt()) {
+            for (FireBand band : fireBands) {
+                band.rescan();
+            }
+            for (BugZone zone : bugZones) {
+                zone.rescan();
+            }
+        } else {
+            IntArray changes = plantController.getSiteChanges();
+            for (int i = 0; i < changes.size; i++) {
+                int x = changes.get(i) % width;
+                int y = changes.get(i) / width;
+                // A node decides its own site and, through its branches,
+                // the three sites above it
+                for (FireBand band : fireBands) {
+                    band.refresh(x, y);
+                    band.refresh(x - 1, y + 1);
+                    band.refresh(x, y + 1);
+                    band.refresh(x + 1, y + 1);
+                }
+                for (BugZone zone : bugZones) {
+                    zone.refresh(x, y);
                 }
             }
         }
-        return !validFireLocs.isEmpty();
+        plantController.clearSiteChanges();
+    }
+
+    /**
+     * Returns whether a fire could start anywhere right now, around a
+     * powerline the plant reaches.
+     */
+    public boolean hasValidFireLocs() {
+        syncSites();
+        float maxHeight = plantController.getMaxPlantHeight();
+        for (FireBand band : fireBands) {
+            if (band.isReached(maxHeight) && band.sites.size() > 0) return true;
+        }
+        return false;
     }
 
     //    /**
@@ -385,85 +420,47 @@ public class HazardController {
     //    }
 
     /**
-     * Generates a fire at a random node if the time is right.
+     * Lights a fire at a random node near a powerline the plant reaches.
      *
-     * @return the generated fire (null if none)
-     */
-    public Fire generateFire() {
-        if (!validFireLocs.isEmpty()) {
-            int index = random.nextInt(validFireLocs.size());
-            Vector2 fireLoc = validFireLocs.get(index);
-            Hazard h = generateHazard(FIRE, (int) fireLoc.x, (int) fireLoc.y);
-            if (h != null) {
-                return (Fire) h;
+     * @return whether a fire was lit
+     */
+    public boolean generateFire() {
+        syncSites();
+        float maxHeight = plantController.getMaxPlantHeight();
+        int count = 0;
+        for (FireBand band : fireBands) {
+            if (band.isReached(maxHeight)) count += band.sites.size();
+        }
+        if (count == 0) return false;
+        // A node near two powerlines is as likely as two nodes
+        int index = random.nextInt(count);
+        for (FireBand band : fireBands) {
+            if (!band.isReached(maxHeight)) continue;
+            if (index < band.sites.size()) {
+                int x = band.sites.get(index) % width;
+                int y = band.sites.get(index) / width;
+                return isValidFireLocation(x, y) && fires.ignite(x, y);
             }
+            index -= band.sites.size();
         }
-        return null;
+        return false;
     }
 
     public void removeHazard(Hazard h) {
         hazards.remove(h);
         plantController.removeHazardFromNodes(h);
-        h.markRemoved(true);
+        retire(h);
     }
 
     /**
-     * Spreads the fire to adjacent nodes.
+     * Marks a removed hazard for the world to drop, returning it to its
+     * pool.
+     *
+     * @param h the hazard, no longer on the plant.
      */
-    private void spreadFire(Vector2 node) {
-        int x = (int) node.x;
-        int y = (int) node.y;
-        if (y + 1 <= height) {
-            // check top left
-            if (plantController.inBounds(x - 1, y + 1)) {
-                if (!plantController.nodeIsEmpty(x - 1, y + 1) &&
-                        !plantController.hasHazard(x - 1, y + 1)) {
-                    addList.add(generateHazardAt(FIRE, x - 1, y + 1));
-                }
-            }
-            // check top right
-            if (plantController.inBounds(x + 1, y + 1)) {
-                if (!plantController.nodeIsEmpty(x + 1, y + 1) &&
-                        !plantController.hasHazard(x + 1, y + 1)) {
-                    addList.add(generateHazardAt(FIRE, x + 1, y + 1));
-                }
-            }
-            // check top middle
-            if (plantController.inBounds(x, y + 1)) {
-                if (!plantController.nodeIsEmpty(x, y + 1) &&
-                        !plantController.hasHazard(x, y + 1)) {
-                    addList.add(generateHazardAt(FIRE, x, y + 1));
-                }
-            }
-        }
-
-        if (y - 1 >= 0) {
-            // check bottom left
-            if (plantController.inBounds(x - 1, y - 1)) {
-                if (plantController.branchExists(x - 1,
-                                                 y - 1,
-                                                 PlantController.BranchDirection.RIGHT) &&
-                        !plantController.hasHazard(x - 1, y + 1)) {
-                    addList.add(generateHazardAt(FIRE, x - 1, y - 1));
-                }
-            }
-            // check bottom right
-            if (plantController.inBounds(x + 1, y - 1)) {
-                if (plantController.branchExists(x + 1,
-                                                 y - 1,
-                                                 PlantController.BranchDirection.LEFT)) {
-                    addList.add(generateHazardAt(FIRE, x + 1, y - 1));
-                }
-            }
-            // check bottom middle
-            if (plantController.inBounds(x, y - 1)) {
-                if (plantController.branchExists(x,
-                                                 y - 1,
-                                                 PlantController.BranchDirection.MIDDLE)) {
-                    addList.add(generateHazardAt(FIRE, x, y - 1));
-                }
-            }
-        }
+    private void retire(Hazard h) {
+        if (h instanceof Bug b) bugPool.retire(b);
+        else h.markRemoved(true);
     }
 
     public boolean isValidFireLocation(int x, int y) {
@@ -488,16 +485,13 @@ public class HazardController {
     /**
      * Generates a hazard at random node at a generated height if the time is right.
      *
+     * Fires are lit through the fire grid instead.
+     *
      * @param type The type of hazard.
      * @return the generated hazard (null if none)
      */
     public Hazard generateHazard(Model.ModelType type, int x, int y) {
         switch (type) {
-            case FIRE:
-                if (isValidFireLocation(x, y)) {
-                    return generateHazardAt(type, x, y);
-                }
-                break;
             case BUG:
                 if (plantController.hasLeaf(x, y) &&
                         !plantController.hasHazard(x, y)) {
@@ -523,17 +517,6 @@ public class HazardController {
         if (hazardHeight == 0 && !plantController.isColumnOffset(hazardWidth))
             return null;
         switch (type) {
-            case FIRE:
-                Fire f = new Fire(plantController.indexToWorldCoord(hazardWidth,
-                                                                    hazardHeight),
-                                  new Vector2(hazardWidth, hazardHeight),
-                                  burnTime,
-                                  tilemap.getTilemapParams(),
-                                  0.5f);
-                f.setFilmStrip(fireTexture);
-                plantController.setHazard(hazardWidth, hazardHeight, f);
-                hazards.add(f);
-                return f;
             case DRONE:
                 Drone d = new Drone(plantController.indexToWorldCoord(
                         hazardWidth,
@@ -546,13 +529,7 @@ public class HazardController {
                 hazards.add(d);
                 return d;
             case BUG:
-                Bug b = new Bug(plantController.indexToWorldCoord(hazardWidth,
-                                                                  hazardHeight),
-                                new Vector2(hazardWidth, hazardHeight),
-                                eatTime,
-                                tilemap.getTilemapParams(),
-                                0.5f);
-                b.setFilmStrip(bugTexture);
+                Bug b = newBug(hazardWidth, hazardHeight);
                 plantController.setHazard(hazardWidth, hazardHeight, b);
                 hazards.add(b);
                 return b;
@@ -561,9 +538,122 @@ public class HazardController {
         }
     }
 
+    /**
+     * Creates the Fire drawing the given burning cell.
+     *
+     * @param c  the cell.
+     * @param dt the length of a step, to catch the animation up with.
+     * @return the new fire
+     */
+    private Fire newFire(int c, float dt) {
+        int x = c % width;
+        int y = c / width;
+        Fire f = firePool.obtain();
+        if (f == null) {
+            f = new Fire(plantController.indexToWorldCoord(x, y),
+                         new Vector2(x, y),
+                         fires.getTimer(c),
+                         tilemap.getTilemapParams(),
+                         0.5f);
+            f.setFilmStrip(fireTexture);
+        } else {
+            f.reuse(plantController.indexToWorldCoord(x, y),
+                    x,
+                    y,
+                    fires.getTimer(c));
+        }
+        f.setAge(fires.getAge(c), dt);
+        return f;
+    }
+
+    /**
+     * Creates a bug at the given node, without placing it.
+     *
+     * @param x x-index of the node.
+     * @param y y-index of the node.
+     * @return the new bug
+     */
+    private Bug newBug(int x, int y) {
+        Bug b = bugPool.obtain();
+        if (b == null) {
+            b = new Bug(plantController.indexToWorldCoord(x, y),
+                        new Vector2(x, y),
+                        eatTime,
+                        tilemap.getTilemapParams(),
+                        0.5f);
+            b.setFilmStrip(bugTexture);
+        } else {
+            b.reuse(plantController.indexToWorldCoord(x, y), x, y, eatTime);
+        }
+        return b;
+    }
+
+    /**
+     * Places a saved fire or bug back at the given node. Unlike
+     * generateHazardAt, this does not check the node nor count the fire as
+     * started.
+     *
+     * @param type  FIRE or BUG.
+     * @param x     x-index of the node.
+     * @param y     y-index of the node.
+     * @param timer the saved timer of the hazard.
+     * @param zone  the bug zone of a bug, ignored for fires.
+     * @return the restored bug, to be added to the world; null for a fire,
+     * which the fire grid keeps
+     */
+    public Hazard restoreHazard(Model.ModelType type,
+                                int x,
+                                int y,
+                                int timer,
+                                int zone) {
+        if (type != BUG) {
+            fires.restore(x, y, timer);
+            return null;
+        }
+        Bug b = newBug(x, y);
+        b.setZoneIndex(zone);
+        b.setTimer(timer);
+        plantController.setHazard(x, y, b);
+        hazards.add(b);
+        return b;
+    }
+
+    /**
+     * Returns the burn timer of the fire at the given cell.
+     *
+     * @param c the cell of a burning node.
+     */
+    public int getFireTimer(int c) {
+        return fires.getTimer(c);
+    }
+
+    /**
+     * Removes every fire and bug, including bugs still despawning, from the
+     * nodes, this controller and the world.
+     */
+    public void clearNodeHazards() {
+        fires.clear();
+        for (Hazard h : hazards) {
+            if (h instanceof Bug) {
+                plantController.removeHazardFromNodes(h);
+                retire(h);
+            }
+        }
+        hazards.removeIf(h -> h instanceof Bug);
+        for (BugZone zone : bugZones) {
+            zone.despawningBugs.clear();
+        }
+    }
+
     public void deleteFireBugs(ObjectSet<Bug> bugs) {
+        if (bugs.isEmpty()) return;
+        // One pass over the hazard list for the whole destruction wave
+        hazards.removeIf(h -> h instanceof Bug b && bugs.contains(b));
+        plantController.removeHazardsFromNodes(bugs);
         for (Bug b : bugs) {
-            removeHazard(b);
+            // A despawning bug must not be removed again once reused
+            bugZones[b.getZoneIndex()].despawningBugs.remove(b);
+            retire(b);
         }
     }
 
@@ -578,24 +668,15 @@ public class HazardController {
         float distance = mousePos.dst(avatarX, avatarY);
         if (distance > tilemap.getTileHeight() * 2) return;
         if (!resourceController.canExtinguish()) {
-            SoundController.getInstance().playSound(errorSound);
+            soundController.playSound(errorSound);
             resourceController.setNotEnough(true);
             return;
         }
-        SoundController.getInstance().playSound(extinguishSound);
-        for (Hazard h : hazards) {
-            if (h.getType().equals(FIRE)) {
-                Vector2 hazPos = plantController.indexToWorldCoord((int) h.getLocation().x,
-                                                                   (int) h.getLocation().y);
-                if (Math.abs(mousePos.x - hazPos.x) < .5 &&
-                        Math.abs(mousePos.y - hazPos.y) < .5) {
-                    hazards.remove(h);
-                    h.markRemoved(true);
-                    resourceController.decrementExtinguish();
-                    plantController.removeHazardFromNodes(h);
-                    break;
-                }
-            }
+        soundController.playSound(extinguishSound);
+        int c = fires.cellNear(mousePos);
+        if (c >= 0) {
+            fires.extinguish(c);
+            resourceController.decrementExtinguish();
         }
     }
 
@@ -605,15 +686,7 @@ public class HazardController {
      * @param mousePos mouse position in world coordinates.
      */
     public boolean hasFire(Vector2 mousePos) {
-        for (Hazard h : hazards) {
-            if (h.getType().equals(FIRE)) {
-                Vector2 hazPos = plantController.indexToWorldCoord((int) h.getLocation().x,
-                                                                   (int) h.getLocation().y);
-                if (Math.abs(mousePos.x - hazPos.x) < .5 &&
-                        Math.abs(mousePos.y - hazPos.y) < .5) return true;
-            }
-        }
-        return false;
+        return fires.cellNear(mousePos) >= 0;
     }
 
     /**
@@ -655,16 +728,16 @@ public class HazardController {
         this.greenArrowUpTexture = new TextureRegion(directory.getEntry(
                 "hazards:arrow-up-green",
                 Texture.class));
-        extinguishSound = SoundController.getInstance()
+        extinguishSound = soundController
                 .addSoundEffect(directory.getEntry("fireextinguish",
                                                    SoundEffect.class));
-        electricShock = SoundController.getInstance()
+        electricShock = soundController
                 .addSoundEffect(directory.getEntry("electricshock",
                                                    SoundEffect.class));
-        errorSound = SoundController.getInstance()
+        errorSound = soundController
                 .addSoundEffect(directory.getEntry("errorsound",
                                                    SoundEffect.class));
-        warningSound = SoundController.getInstance()
+        warningSound = soundController
                 .addSoundEffect(directory.getEntry("warningsound",
                                                    SoundEffect.class));
     }
@@ -681,61 +754,134 @@ public class HazardController {
         for (Hazard h : hazards) {
             Vector2 hazardLoc = plantController.indexToWorldCoord((int) h.getLocation().x,
                                                                   (int) h.getLocation().y);
-            if (Math.abs(hazardLoc.y - cameraVector.y) > hi / 2f) {
-                // begin magic numbers
-                float warningScale = 1f;
-                float arrowScale = 0.3f; // works
-                float warningVSep = 0.85f; // source:
-                float arrowVSep = 0.2f; // trust me bro
-                // end magic numbers
-                float warningX = hazardLoc.x - warningScale / 2f;
-                float warningY = (hazardLoc.y < cameraVector.y ?
-                        warningVSep :
-                        hi - warningVSep) - warningScale / 2f + cameraVector.y -
-                        hi / 2f;
-                float arrowX = hazardLoc.x - arrowScale / 2f;
-                float arrowY = (hazardLoc.y < cameraVector.y ?
-                        arrowVSep :
-                        hi - arrowVSep) - arrowScale / 2f + cameraVector.y -
-                        hi / 2f;
-                TextureRegion arrowTex = hazardLoc.y < cameraVector.y ?
-                        (h.getType() == FIRE ?
-                                redArrowDownTexture :
-                                greenArrowDownTexture) :
-                        (h.getType() == FIRE ?
-                                redArrowUpTexture :
-                                greenArrowUpTexture);
-                // Choose texture based on current time
-                long currentTime = System.currentTimeMillis();
-                int interval = (int) (500f * (float) h.getTimer() /
-                        (float) h.getMaxTimer());
-                TextureRegion warningTex = (currentTime / interval) % 2 == 0 ?
-                        (h.getType() == FIRE ?
-                                redWarningTexture :
-                                greenWarningTexture) :
-                        (h.getType() == FIRE ?
-                                redWarningFlashTexture :
-                                greenWarningFlashTexture);
-                //                if ((warningTex == redWarningTexture &&
-                //                        h.previousTex() == redWarningFlashTexture) ||
-                //                        (warningTex == greenWarningTexture &&
-                //                                h.previousTex() == greenWarningFlashTexture))
-                //                    SoundController.getInstance().playSound(warningSound);
-                canvas.draw(warningTex,
-                            Color.WHITE,
-                            warningX,
-                            warningY,
-                            warningScale,
-                            warningScale);
-                canvas.draw(arrowTex,
-                            Color.WHITE,
-                            arrowX,
-                            arrowY,
-                            arrowScale,
-                            arrowScale);
-                h.setPreviousTexture(warningTex);
+            TextureRegion warningTex = drawWarning(canvas,
+                                                   cameraVector,
+                                                   hi,
+                                                   hazardLoc,
+                                                   h.getType() == FIRE,
+                                                   (float) h.getTimer() /
+                                                           (float) h.getMaxTimer());
+            if (warningTex != null) h.setPreviousTexture(warningTex);
+        }
+        IntArray burning = fires.getBurning();
+        for (int i = 0; i < burning.size; i++) {
+            int c = burning.get(i);
+            drawWarning(canvas,
+                        cameraVector,
+                        hi,
+                        plantController.indexToWorldCoord(c % width,
+                                                          c / width),
+                        true,
+                        (float) fires.getTimer(c) /
+                                (float) fires.getBurnTime());
+        }
+    }
+
+    /**
+     * Draws a warning symbol for one hazard if it is out of camera view.
+     *
+     * @param canvas       game canvas
+     * @param cameraVector camera position
+     * @param hi           height of the camera view
+     * @param hazardLoc    position of the hazard
+     * @param fire         whether the hazard is a fire
+     * @param timeLeft     fraction of the hazard's time left, which speeds up
+     *                     the flashing
+     * @return the warning texture drawn, null if the hazard is in view
+     */
+    private TextureRegion drawWarning(GameCanvas canvas,
+                                      Vector2 cameraVector,
+                                      float hi,
+                                      Vector2 hazardLoc,
+                                      boolean fire,
+                                      float timeLeft) {
+        if (Math.abs(hazardLoc.y - cameraVector.y) <= hi / 2f) return null;
+        // begin magic numbers
+        float warningScale = 1f;
+        float arrowScale = 0.3f; // works
+        float warningVSep = 0.85f; // source:
+        float arrowVSep = 0.2f; // trust me bro
+        // end magic numbers
+        float warningX = hazardLoc.x - warningScale / 2f;
+        float warningY = (hazardLoc.y < cameraVector.y ?
+                warningVSep :
+                hi - warningVSep) - warningScale / 2f + cameraVector.y -
+                hi / 2f;
+        float arrowX = hazardLoc.x - arrowScale / 2f;
+        float arrowY = (hazardLoc.y < cameraVector.y ?
+                arrowVSep :
+                hi - arrowVSep) - arrowScale / 2f + cameraVector.y -
+                hi / 2f;
+        TextureRegion arrowTex = hazardLoc.y < cameraVector.y ?
+                (fire ?
+                        redArrowDownTexture :
+                        greenArrowDownTexture) :
+                (fire ?
+                        redArrowUpTexture :
+                        greenArrowUpTexture);
+        // Choose texture based on simulated time, so it stops while paused
+        long currentTime = (long) (scheduler.getTime() * 1000);
+        int interval = (int) (500f * timeLeft);
+        TextureRegion warningTex = (currentTime / interval) % 2 == 0 ?
+                (fire ?
+                        redWarningTexture :
+                        greenWarningTexture) :
+                (fire ?
+                        redWarningFlashTexture :
+                        greenWarningFlashTexture);
+        //                if ((warningTex == redWarningTexture &&
+        //                        h.previousTex() == redWarningFlashTexture) ||
+        //                        (warningTex == greenWarningTexture &&
+        //                                h.previousTex() == greenWarningFlashTexture))
+        //                    soundController.playSound(warningSound);
+        canvas.draw(warningTex,
+                    Color.WHITE,
+                    warningX,
+                    warningY,
+                    warningScale,
+                    warningScale);
+        canvas.draw(arrowTex,
+                    Color.WHITE,
+                    arrowX,
+                    arrowY,
+                    arrowScale,
+                    arrowScale);
+        return warningTex;
+    }
+
+    /**
+     * Makes a Fire for every burning node on screen that has none, and
+     * drops the Fires of nodes that left the screen.
+     *
+     * @param canvas       game canvas
+     * @param cameraVector camera position
+     * @param dt           the length of a step
+     * @return the new fires, to be added to the world
+     */
+    public PooledList<Fire> updateFireVisuals(GameCanvas canvas,
+                                              Vector2 cameraVector,
+                                              float dt) {
+        newFires.clear();
+        float w = tilemap.getWorldWidth();
+        float hi = w * canvas.getHeight() / canvas.getWidth();
+        // A row of margin, so fires are there before they scroll in
+        float reach = hi / 2f + tilemap.getTileHeight();
+        IntArray burning = fires.getBurning();
+        for (int i = 0; i < burning.size; i++) {
+            int c = burning.get(i);
+            float y = plantController.indexToWorldCoord(c % width,
+                                                        c / width).y;
+            boolean onScreen = Math.abs(y - cameraVector.y) <= reach;
+            Fire f = fires.getVisual(c);
+            if (onScreen && f == null) {
+                f = newFire(c, dt);
+                fires.setVisual(c, f);
+                newFires.add(f);
+            } else if (!onScreen && f != null) {
+                fires.setVisual(c, null);
             }
         }
+        return newFires;
     }
 
     public void update(float dt) {
@@ -744,15 +890,28 @@ public class HazardController {
 
     public int powerlinesTouching() {
         int count = 0;
-        for (float f : powerlineHeights) {
-            if (plantController.getMaxPlantHeight() >=
-                    f - 0.5f * tilemap.getTileHeight()) {
-                count++;
-            }
+        float maxHeight = plantController.getMaxPlantHeight();
+        float halfTile = 0.5f * tilemap.getTileHeight();
+        for (int i = 0; i < powerlineHeights.size; i++) {
+            if (maxHeight >= powerlineHeights.get(i) - halfTile) count++;
         }
         return count;
     }
 
+    /**
+     * @return the number of fires started since the last reset.
+     */
+    public int getFiresStarted() {
+        return fires.getStarted();
+    }
+
+    /**
+     * @return the bug zones of the current level, one per bug row.
+     */
+    public BugZone[] getBugZones() {
+        return bugZones;
+    }
+
     public float getFireProgress() {
         return fireProgress;
     }
@@ -764,6 +923,223 @@ public class HazardController {
     //        addList.clear();
     //    }
 
+    /**
+     * The nodes around one powerline where a fire could start, kept up to
+     * date as the plant changes instead of searched for.
+     */
+    private class FireBand {
+
+        /**
+         * Height of the powerline.
+         */
+        private final float y;
+        /**
+         * Highest row of the band, whose offset nodes are too far visually.
+         */
+        private final int max;
+        /**
+         * The nodes of the band where a fire could start.
+         */
+        private final SiteSet sites;
+
+        FireBand(float y) {
+            this.y = y;
+            float halfTile = 0.5f * tilemap.getTileHeight();
+            max = plantController.coordToIndex(0,
+                                               y + FIRE_BUFFER_ABOVE +
+                                                       halfTile).y;
+            int min = plantController.coordToIndex(0,
+                                                   y - FIRE_BUFFER_BELOW +
+                                                           halfTile).y;
+            sites = new SiteSet(Math.max(min, 1),
+                                Math.min(max, plantController.getHeight() - 1));
+        }
+
+        /**
+         * Returns whether the plant reaches this powerline, so that fires
+         * may start around it.
+         *
+         * @param maxHeight the maximum height of the plant.
+         */
+        boolean isReached(float maxHeight) {
+            return maxHeight >= y - 0.5f * tilemap.getTileHeight();
+        }
+
+        /**
+         * Checks every node of the band again.
+         */
+        void rescan() {
+            sites.clear();
+            // A fire needs plant at its node or just below, so skip rows
+            // with nothing at either
+            for (int i = Math.max(sites.bottom,
+                                  plantController.nextOccupiedRow(
+                                          sites.bottom - 1));
+                 i <= sites.top;
+                 i = Math.max(i + 1, plantController.nextOccupiedRow(i))) {
+                for (int x = 0; x < width; x++) {
+                    refresh(x, i);
+                }
+            }
+        }
+
+        /**
+         * Adds or removes the given node from the sites, if in this band.
+         *
+         * @param x x-index of the node.
+         * @param i y-index of the node.
+         */
+        void refresh(int x, int i) {
+            if (!sites.covers(x, i)) return;
+            sites.set(x,
+                      i,
+                      (i != max || !plantController.isColumnOffset(x)) &&
+                              isValidFireLocation(x, i));
+        }
+
+    }
+
+    /**
+     * Removed hazards of one kind, kept to be reused instead of making new
+     * ones. A hazard is only handed out again once the world has let go of
+     * it, which parks its body inactive instead of destroying it.
+     */
+    static class HazardPool<T extends Hazard> {
+
+        /**
+         * Hazards removed but maybe still in the world.
+         */
+        private final Array<T> retired = new Array<>(false, 16);
+        /**
+         * Hazards the world let go of.
+         */
+        private final Array<T> free = new Array<>(false, 16);
+
+        /**
+         * Marks the given hazard removed, to be reused once the world lets
+         * go of it.
+         *
+         * @param h the hazard.
+         */
+        void retire(T h) {
+            if (h.isRemoved()) return;
+            h.markRemoved(true);
+            h.setPooled();
+            retired.add(h);
+        }
+
+        /**
+         * @return a hazard the world let go of, null if none
+         */
+        T obtain() {
+            for (int i = retired.size - 1; i >= 0; i--) {
+                if (retired.get(i).isParked()) free.add(retired.removeIndex(i));
+            }
+            return free.size > 0 ? free.pop() : null;
+        }
+
+        /**
+         * Forgets every hazard, after the world they were in is gone.
+         */
+        void clear() {
+            retired.clear();
+            free.clear();
+        }
+
+    }
+
+    /**
+     * A set of nodes within a band of rows, with constant time membership,
+     * updates and random picks.
+     */
+    private class SiteSet {
+
+        /**
+         * Lowest row of the band.
+         */
+        final int bottom;
+        /**
+         * Highest row of the band.
+         */
+        final int top;
+        /**
+         * Cell of every node in the set, in no particular order.
+         */
+        private final IntArray cells = new IntArray();
+        /**
+         * Index in the cells of every node of the band, -1 if not in the
+         * set.
+         */
+        private final int[] slots;
+
+        SiteSet(int bottom, int top) {
+            this.bottom = bottom;
+            this.top = top;
+            slots = new int[Math.max(top - bottom + 1, 0) * width];
+            Arrays.fill(slots, -1);
+        }
+
+        /**
+         * Returns whether the given node is within the band.
+         *
+         * @param x x-index of the node.
+         * @param i y-index of the node.
+         */
+        boolean covers(int x, int i) {
+            return i >= bottom && i <= top && x >= 0 && x < width;
+        }
+
+        /**
+         * Adds or removes the given node, which must be within the band.
+         *
+         * @param x  x-index of the node.
+         * @param i  y-index of the node.
+         * @param in whether the node belongs in the set.
+         */
+        void set(int x, int i, boolean in) {
+            int s = (i - bottom) * width + x;
+            if (in == (slots[s] >= 0)) return;
+            if (in) {
+                slots[s] = cells.size;
+                cells.add(i * width + x);
+            } else {
+                // Fill the hole with the last node
+                int slot = slots[s];
+                slots[s] = -1;
+                int last = cells.pop();
+                if (slot < cells.size) {
+                    cells.set(slot, last);
+                    slots[last - bottom * width] = slot;
+                }
+            }
+        }
+
+        /**
+         * @return the number of nodes in the set.
+         */
+        int size() {
+            return cells.size;
+        }
+
+        /**
+         * Returns the cell of the node at the given index.
+         *
+         * @param index the index, less than the size.
+         */
+        int get(int index) {
+            return cells.get(index);
+        }
+
+        /**
+         * Removes every node.
+         */
+        void clear() {
+            cells.clear();
+            Arrays.fill(slots, -1);
+        }
+
+    }
+
     public class BugZone {
 
         private final float WIDTH = tilemap.getTileHeight();
@@ -775,36 +1151,52 @@ public class HazardController {
         private final int index;
         private final int max;
         private final int min;
-        private final PooledList<Vector2> validLeafLocs;
+        /**
+         * The leaves of the zone a bug could start on.
+         */
+        private final SiteSet leafSites;
+        /**
+         * Cells a bug could spread to, reused by every spread.
+         */
+        private final int[] spreadCells = new int[6];
+        /**
+         * Random stream for this zone's spawn timer and locations
+         */
+        private final RandomController random;
+        /**
+         * Marks a bug due to spawn when the spawn timer runs out
+         */
+        private final TimingWheel.Task spawnTask =
+                new TimingWheel.Task(() -> spawnDue = true);
         PooledList<Bug> despawningBugs;
-        private float currTime;
-        private float timer;
+        private boolean spawnDue;
 
         public BugZone(float f, int ind) {
             y = f;
             index = ind;
+            random = HazardController.this.random.split();
             max = plantController.coordToIndex(0,
                                                y + ZONE_BUFFER_ABOVE + 0.5f *
                                                        tilemap.getTileHeight()).y;
             min = plantController.coordToIndex(0,
                                                y - ZONE_BUFFER_BELOW + 0.5f *
                                                        tilemap.getTileHeight()).y;
-            validLeafLocs = new PooledList<>();
+            leafSites = new SiteSet(Math.max(min, 1),
+                                    Math.min(max, plantController.getHeight() - 1));
             despawningBugs = new PooledList<>();
             changeTimer();
         }
 
         public void changeTimer() {
-            currTime = 0;
-            timer = RandomController.rollFloat(LOWER_LIMIT, UPPER_LIMIT);
+            spawnDue = false;
+            scheduler.schedule(spawnTask,
+                               random.rollFloat(LOWER_LIMIT, UPPER_LIMIT));
         }
 
         public void update(float dt) {
-            currTime += dt;
-            if (currTime >= timer) {
+            if (spawnDue) {
                 changeTimer();
                 // spawn bug within zone
-                findValidLeafLocs();
                 Bug b = generateBug();
                 if (b != null) {
                     b.setZoneIndex(index);
@@ -812,8 +1204,8 @@ public class HazardController {
                 }
 
                 //                if (b != null)
-                //                    SoundController.getInstance().playSound(electricShock);
-                //                else SoundController.getInstance().playSound(extinguishSound);
+                //                    soundController.playSound(electricShock);
+                //                else soundController.playSound(extinguishSound);
             }
             for (Bug b : despawningBugs) {
                 if (b.getDoneAnim()) {
@@ -823,32 +1215,50 @@ public class HazardController {
             }
         }
 
-        public void findValidLeafLocs() {
-            validLeafLocs.clear();
-            for (int i = min; i <= max; i++) {
-                if (i != 0) {
-                    for (int width = 0;
-                         width < plantController.getWidth();
-                         width++) {
-                        int idx = i;
-                        if (i == max && plantController.isColumnOffset(width))
-                            continue; // If the node is at the max height
-                        // and it's offset then it's too far visually
-                        if (isValidBugLocation(width, i)) {
-                            validLeafLocs.add(new Vector2(width, i));
-                        }
-                    }
+        /**
+         * @return whether a bug could start anywhere in this zone.
+         */
+        public boolean hasValidLeafLocs() {
+            syncSites();
+            return leafSites.size() > 0;
+        }
+
+        /**
+         * Checks every node of the zone again.
+         */
+        void rescan() {
+            leafSites.clear();
+            for (int i = plantController.nextOccupiedRow(leafSites.bottom);
+                 i <= leafSites.top;
+                 i = plantController.nextOccupiedRow(i + 1)) {
+                for (int x = 0; x < width; x++) {
+                    refresh(x, i);
                 }
             }
         }
 
+        /**
+         * Adds or removes the given node from the leaf sites, if in this
+         * zone.
+         *
+         * @param x x-index of the node.
+         * @param i y-index of the node.
+         */
+        void refresh(int x, int i) {
+            if (!leafSites.covers(x, i)) return;
+            // If the node is at the max height and it's offset then it's
+            // too far visually
+            leafSites.set(x,
+                          i,
+                          (i != max || !plantController.isColumnOffset(x)) &&
+                                  isValidBugLocation(x, i));
+        }
+
         public Bug generateBug() {
-            if (!validLeafLocs.isEmpty()) {
-                int index = random.nextInt(validLeafLocs.size());
-                Vector2 fireLoc = validLeafLocs.get(index);
-                Hazard h = generateHazard(BUG,
-                                          (int) fireLoc.x,
-                                          (int) fireLoc.y);
+            syncSites();
+            if (leafSites.size() > 0) {
+                int c = leafSites.get(random.nextInt(leafSites.size()));
+                Hazard h = generateHazard(BUG, c % width, c / width);
                 if (h != null) {
                     return (Bug) h;
                 }
@@ -857,57 +1267,41 @@ public class HazardController {
         }
 
         public void spreadBug(Vector2 loc) {
-            validLeafLocs.clear();
             int x = (int) loc.x;
             int y = (int) loc.y;
+            int count = 0;
             if (y + 1 <= height && inBounds(y + 1)) {
-                // check top left
-                if (plantController.inBounds(x - 1, y + 1)) {
-                    if (isValidBugLocation(x - 1, y + 1)) {
-                        validLeafLocs.add(new Vector2(x - 1, y + 1));
-                    }
-                }
-                // check top right
-                if (plantController.inBounds(x + 1, y + 1)) {
-                    if (isValidBugLocation(x + 1, y + 1)) {
-                        validLeafLocs.add(new Vector2(x + 1, y + 1));
-                    }
-                }
-                // check top middle
-                if (plantController.inBounds(x, y + 1)) {
-                    if (isValidBugLocation(x, y + 1)) {
-                        validLeafLocs.add(new Vector2(x, y + 1));
-                    }
-                }
+                // check top left, top right and top middle
+                count = addSpreadCell(x - 1, y + 1, count);
+                count = addSpreadCell(x + 1, y + 1, count);
+                count = addSpreadCell(x, y + 1, count);
             }
-
             if (y - 1 >= 0 && inBounds(y - 1)) {
-                // check bottom left
-                if (plantController.inBounds(x - 1, y - 1)) {
-                    if (isValidBugLocation(x - 1, y - 1)) {
-                        validLeafLocs.add(new Vector2(x - 1, y - 1));
-                    }
-                }
-                // check bottom right
-                if (plantController.inBounds(x + 1, y - 1)) {
-                    if (isValidBugLocation(x + 1, y - 1)) {
-                        validLeafLocs.add(new Vector2(x + 1, y - 1));
-                    }
-                }
-                // check bottom middle
-                if (plantController.inBounds(x, y - 1)) {
-                    if (isValidBugLocation(x, y - 1)) {
-                        validLeafLocs.add(new Vector2(x, y - 1));
-                    }
-                }
+                // check bottom left, bottom right and bottom middle
+                count = addSpreadCell(x - 1, y - 1, count);
+                count = addSpreadCell(x + 1, y - 1, count);
+                count = addSpreadCell(x, y - 1, count);
+            }
+            if (count > 0) {
+                int c = spreadCells[random.nextInt(count)];
+                addList.add(generateHazard(BUG, c % width, c / width));
             }
+        }
 
-            if (!validLeafLocs.isEmpty()) {
-                int randomIndex = random.nextInt(validLeafLocs.size());
-                Vector2 node = validLeafLocs.get(randomIndex);
-                //                addList.add(generateHazardAt(BUG, (int)node.x, (int)node.y));
-                addList.add(generateHazard(BUG, (int) node.x, (int) node.y));
+        /**
+         * Adds the given node to the spread cells if a bug could spread to
+         * it.
+         *
+         * @param x     x-index of the node.
+         * @param y     y-index of the node.
+         * @param count the number of spread cells so far.
+         * @return the new number of spread cells
+         */
+        private int addSpreadCell(int x, int y, int count) {
+            if (plantController.inBounds(x, y) && isValidBugLocation(x, y)) {
+                spreadCells[count++] = y * width + x;
             }
+            return count;
         }
 
         public boolean inBounds(int y) {
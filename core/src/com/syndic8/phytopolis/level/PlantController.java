@@ -3,12 +3,13 @@ package com.syndic8.phytopolis.level;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.physics.box2d.QueryCallback;
-import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.ObjectSet;
-import com.badlogic.gdx.utils.Queue;
 import com.syndic8.phytopolis.GameCanvas;
+import com.syndic8.phytopolis.InputController;
 import com.syndic8.phytopolis.SoundController;
 import com.syndic8.phytopolis.assets.AssetDirectory;
 import com.syndic8.phytopolis.level.models.*;
@@ -19,7 +20,17 @@ import com.syndic8.phytopolis.util.RandomController;
 import com.syndic8.phytopolis.util.Tilemap;
 import edu.cornell.gdiac.audio.SoundEffect;
 
-import java.util.Random;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
 
 /**
  * Subcontroller for the plant grid and its nodes.
@@ -34,6 +45,11 @@ public class PlantController {
      * Time between propagations of destruction.
      */
     private static final float PLANT_COYOTE_TIME = 0.25f;
+    /**
+     * Most nodes destroyed in a single frame. The rest of a wave carries
+     * over to the following frames.
+     */
+    private static final int DESTRUCTION_BUDGET = 64;
     /**
      * The sun controller gets valid x-coordinates from enabled nodes at a
      * certain height. That height is calculated to be the top row minus this
@@ -41,22 +57,123 @@ public class PlantController {
      */
     private static final int SUN_SPAWN_BUFFER = 4;
     /**
-     * The destruction queue. It is populated when a node is destroyed, and
-     * then slowly cleared as the now-unsupported plant structure above is
-     * progressively destroyed.
+     * How far a node has to stay from terrain to be enabled.
+     */
+    private static final float TERRAIN_MARGIN = 0.1f;
+    /**
+     * Extra reach around tile colliders, matching the fattened bounds that
+     * Box2D queries used to see (0.1 extension plus 0.01 polygon skin).
+     */
+    private static final float TERRAIN_SKIN = 0.11f;
+    /**
+     * Node bit: the node is not inside terrain.
+     */
+    private static final int ENABLED = 1;
+    /**
+     * Node bit: the node sits half a row above the even columns.
+     */
+    private static final int OFFSET = 1 << 1;
+    /**
+     * Node bits: a branch grows in a direction, one bit per direction
+     * starting at this one, in BranchDirection order.
+     */
+    private static final int BRANCH = 1 << 2;
+    /**
+     * Mask of all the branch bits.
+     */
+    private static final int BRANCHES = 7 << 2;
+    /**
+     * Node bits: the branch in a direction is reinforced, one bit per
+     * direction starting at this one, in BranchDirection order.
+     */
+    private static final int REINFORCED = 1 << 5;
+    /**
+     * Node bit: the node has a leaf.
+     */
+    private static final int LEAF = 1 << 8;
+    /**
+     * Shift of the two bits holding the ordinal of the leaf type.
+     */
+    private static final int LEAF_TYPE_SHIFT = 9;
+    private static final int LEAF_TYPE_MASK = 3;
+    /**
+     * Node bit: the node has a hazard.
+     */
+    private static final int HAZARD = 1 << 11;
+    /**
+     * Node bit: the hazard at the node is a bug.
+     */
+    private static final int BUG = 1 << 12;
+    private static final BranchDirection[] DIRECTIONS =
+            BranchDirection.values();
+    private static final Leaf.leafType[] LEAF_TYPES = Leaf.leafType.values();
+    /**
+     * Node bit: the node has lost all support and is waiting for its wave of
+     * destruction.
+     */
+    private static final int DOOMED = 1 << 13;
+    /**
+     * Node bit: the node is in the list of leaves under attack.
+     */
+    private static final int ATTACKED = 1 << 14;
+    /**
+     * Node bits set only by plant parts, hazards and pending destruction. A
+     * chunk is kept while any of its nodes has one of these.
+     */
+    private static final int CONTENTS = ~(ENABLED | OFFSET);
+    /**
+     * Number of rows in each chunk of the plant grid.
+     */
+    private static final int CHUNK_ROWS = 8;
+    /**
+     * Identifies a plant snapshot ("PHYP").
+     */
+    private static final int SNAPSHOT_MAGIC = 0x50485950;
+    private static final int SNAPSHOT_VERSION = 1;
+    /**
+     * Node bits kept in a snapshot: branches, leaves and hazards.
+     */
+    private static final int SNAPSHOT_BITS =
+            BRANCHES | (7 * REINFORCED) | LEAF |
+                    (LEAF_TYPE_MASK << LEAF_TYPE_SHIFT) | HAZARD | BUG;
+    /**
+     * Node bits that placement queries depend on. Changing any of them
+     * invalidates the cached queries.
+     */
+    private static final int PLACEMENT_BITS =
+            ENABLED | BRANCHES | LEAF | (LEAF_TYPE_MASK << LEAF_TYPE_SHIFT);
+    /**
+     * Node bits that decide where hazards may start. Changing any of them
+     * records the node in the site changes.
+     */
+    private static final int SITE_BITS = BRANCHES | LEAF | HAZARD;
+    /**
+     * Slope of the boundaries between branch directions, tan(PI / 3).
+     */
+    private static final float SECTOR_SLOPE = (float) Math.sqrt(3);
+    /**
+     * Nodes to check for support after the last destruction, in the order
+     * they were reached.
+     */
+    private final IntArray frontier = new IntArray();
+    /**
+     * Cells whose leaf is being eaten, or was until its health marks caught
+     * up. Only these leaves can lose health, so per-frame leaf checks only
+     * look at them. A cell is in the list if and only if its ATTACKED bit is
+     * set; cells whose leaf is gone are dropped the next time it is read.
      */
-    private final Queue<IntVector2> destructionQueue = new Queue<>(3);
+    private final IntArray attackedLeaves = new IntArray(false, 16);
     /**
-     * A temporary queue used to copy over values from the destruction queue
-     * to prevent that changes to the destruction queue affect iteration.
-     * Necessary for a proper BFS destruction.
+     * Cells whose site bits changed since the hazard controller last looked,
+     * possibly repeated. Dropped in favour of a rebuild once it would cost
+     * more to replay than to check every site again.
      */
-    private final Queue<IntVector2> currentQueue = new Queue<>(3);
+    private final IntArray siteChanges = new IntArray(false, 16);
     /**
-     * A temporary list of next nodes to be checked for potential addition to
-     * the destruction queue.
+     * Whether the grid was rebuilt since the hazard controller last looked,
+     * making the site changes incomplete.
      */
-    private final PooledList<IntVector2> nextNodes = new PooledList<>();
+    private boolean sitesRebuilt;
     /**
      * Reference to the ResourceController.
      */
@@ -65,10 +182,11 @@ public class PlantController {
      * The singleton instance of the sound controller.
      */
     private final SoundController soundController;
+    private final InputController inputController;
     /**
      * A random number generator to aid with choosing random branch textures.
      */
-    private final Random branchChoice;
+    private final RandomController branchChoice;
     /**
      * A temporary set of removed hazards.
      */
@@ -100,9 +218,16 @@ public class PlantController {
     //End branch textures
 
     /**
-     * Indices of the highest plant position.
+     * Number of plant parts at every level of the grid, where a level is half
+     * a row: node (x, y) is at level 2y, or 2y + 1 if it is offset. A branch
+     * counts towards the level of the node it ends at, a leaf towards the
+     * level of its node.
+     */
+    private int[] levelCounts;
+    /**
+     * The highest level with any plant parts, -1 if none.
      */
-    private IntVector2 maxPlantIndex;
+    private int topLevel;
     /**
      * Ghost leaf for growth previews.
      */
@@ -116,10 +241,47 @@ public class PlantController {
      */
     private float plantCoyoteTimeRemaining = 0;
     /**
-     * The plant grid, in column-major order. All branches and leaves grow on
-     * plant nodes inside the grid.
+     * Ring of destruction waves, one every PLANT_COYOTE_TIME, holding the
+     * grid cells to destroy in each wave. Cells scheduled from outside are
+     * stored complemented, as they are destroyed whether supported or not.
+     */
+    private IntArray[] destructionWaves;
+    /**
+     * Number of the next wave. Wave n is at index n in the ring, modulo its
+     * length.
+     */
+    private int currentWave;
+    /**
+     * Number of cells of the current wave already processed.
+     */
+    private int waveCursor;
+    /**
+     * Whether the current wave has destroyed anything yet, and so has
+     * played its sound.
+     */
+    private boolean waveDestroyed;
+    /**
+     * Number of cells in all waves.
+     */
+    private int pendingDestructions;
+    /**
+     * The plant grid, in chunks of CHUNK_ROWS full rows from the bottom up.
+     * All branches and leaves grow on plant nodes inside the grid. Node
+     * (x, y) is cell y * width + x, so each chunk is a contiguous run of
+     * cells. A chunk is only allocated once something grows in it and is
+     * dropped once it is empty again, so memory and scans follow the plant
+     * rather than the height of the level.
+     */
+    private Chunk[] chunks;
+    /**
+     * Number of cells in a chunk.
+     */
+    private int chunkCells;
+    /**
+     * The cells of the nodes outside terrain. A single bit per node, so even
+     * nodes in chunks that are not allocated know whether they are enabled.
      */
-    private PlantNode[][] plantGrid;
+    private Bits enabledNodes;
     /**
      * Width of the plant grid.
      */
@@ -160,6 +322,30 @@ public class PlantController {
      * Glow texture for the bottom nodes.
      */
     private Texture glowTexture;
+    /**
+     * Bumped whenever the placement bits of any node change, or the grid is
+     * rebuilt.
+     */
+    private int gridVersion;
+    /**
+     * Last branch placement query. The ghost branch, the cursor and growth
+     * all ask about the same node several times a frame, so the answer is
+     * kept until the grid changes or the cursor aims elsewhere.
+     */
+    private final Placement branchPlacement = new Placement();
+    /**
+     * Last leaf placement query.
+     */
+    private final Placement leafPlacement = new Placement();
+    /**
+     * Draws every branch and leaf of the plant.
+     */
+    private final PlantRenderer renderer = new PlantRenderer();
+    /**
+     * Shared row bodies for the leaves, rebuilt with the row height on
+     * every reset.
+     */
+    private LeafColliders leafColliders;
 
     /**
      * Branch direction from a node.
@@ -169,21 +355,35 @@ public class PlantController {
     /**
      * Initializes a PlantController referencing the given resource controller.
      *
-     * @param rc the resource controller reference.
-     */
-    public PlantController(ResourceController rc) {
+     * @param rc     the resource controller reference.
+     * @param random the random stream for branch textures.
+     * @param sc     the sound controller to play growth sounds on.
+     * @param ic     the input controller leaves read.
+     */
+    public PlantController(ResourceController rc,
+                           RandomController random,
+                           SoundController sc,
+                           InputController ic) {
         resourceController = rc;
         removedHazards = new ObjectSet<>();
-        maxPlantIndex = new IntVector2();
-        branchChoice = RandomController.generator;
-        soundController = SoundController.getInstance();
+        branchChoice = random;
+        soundController = sc;
+        inputController = ic;
     }
 
     /**
      * @return a random branch filmstrip.
      */
     private FilmStrip getRandomBranchFilmstrip() {
-        int num = branchChoice.nextInt(3);
+        return getBranchFilmstrip(branchChoice.nextInt(3));
+    }
+
+    /**
+     * Returns one of the three branch filmstrips.
+     *
+     * @param num which filmstrip, from 0 to 2.
+     */
+    private FilmStrip getBranchFilmstrip(int num) {
         if (num == 0) {
             return firstBranchTexture;
         } else if (num == 1) {
@@ -197,10 +397,10 @@ public class PlantController {
      * Resets the PlantController, creating a centered grid of nodes
      * stretching across the world.
      *
-     * @param wld the box2d world.
+     * @param tm  the tilemap, already populated for this level.
      * @param tmp the tilemap parameters.
      */
-    public void reset(World wld, Tilemap.TilemapParams tmp) {
+    public void reset(Tilemap tm, Tilemap.TilemapParams tmp) {
         branchLength = tmp.tileHeight();
         width = Math.round(tmp.tilemapWidth() * (float) Math.sqrt(3));
         height = Math.round(tmp.worldHeight() / branchLength) + HEIGHT_BUFFER;
@@ -212,62 +412,279 @@ public class PlantController {
         removedHazards.clear();
         if (ghostBranch != null) ghostBranch.markRemoved(true);
         if (ghostLeaf != null) ghostLeaf.markRemoved(true);
+        renderer.clear();
+        leafColliders = new LeafColliders(branchLength);
         ghostBranch = new Branch(0, 0, 0, Branch.BranchType.NORMAL, tmp, 1);
-        ghostLeaf = new Leaf(0, 0, 1, 1, Leaf.leafType.NORMAL, tmp, 0.75f);
-        plantGrid = new PlantNode[width][height];
-        maxPlantIndex.set(-1, -1);
+        ghostLeaf = new Leaf(0,
+                             0,
+                             1,
+                             1,
+                             Leaf.leafType.NORMAL,
+                             tmp,
+                             0.75f,
+                             inputController);
+        chunks = new Chunk[(height + CHUNK_ROWS - 1) / CHUNK_ROWS];
+        chunkCells = width * CHUNK_ROWS;
+        enabledNodes = new Bits(width * height);
+        levelCounts = new int[2 * height];
+        topLevel = -1;
+        attackedLeaves.clear();
+        // A collapse climbs at least half a row per wave
+        destructionWaves = new IntArray[2 * height + 1];
+        for (int i = 0; i < destructionWaves.length; i++) {
+            destructionWaves[i] = new IntArray();
+        }
+        currentWave = 0;
+        waveCursor = 0;
+        waveDestroyed = false;
+        pendingDestructions = 0;
+        plantCoyoteTimeRemaining = 0;
         horizontalSpacing = (float) Math.sqrt(3) * branchLength / 2f;
-        initializePlantGrid(wld);
+        initializePlantGrid(tm);
+        gridVersion++;
+        siteChanges.clear();
+        sitesRebuilt = true;
     }
 
     /**
-     * Initializes the <code>plantGrid</code> attribute with a 2D array of
-     * nodes, with the correct spacing and offset to create an isometric grid.
+     * Finds the nodes of the plant grid that are outside terrain, using the
+     * offset columns of an isometric grid.
      *
-     * @param wld the world to query to set enabled/disabled status for nodes.
+     * @param tm the tilemap whose colliders disable the nodes inside them.
      */
-    private void initializePlantGrid(World wld) {
+    private void initializePlantGrid(Tilemap tm) {
+        float reach = TERRAIN_MARGIN + TERRAIN_SKIN;
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 float yOffset = 0;
                 if (x % 2 == 1) yOffset = branchLength / 2f;
                 float xCoord = (x * horizontalSpacing) + xOrigin;
                 float yCoord = yOrigin + yOffset + (y * branchLength);
-                float margin = 0.1f;
-                final boolean[] hasBody = {false};
-                wld.QueryAABB(new QueryCallback() {
-                                  @Override
-                                  public boolean reportFixture(Fixture fixture) {
-                                      if (fixture.getBody().getUserData() instanceof Tile)
-                                          hasBody[0] = true;
-                                      return false;
-                                  }
-                              },
-                              xCoord - margin,
-                              yCoord - margin,
-                              xCoord + margin,
-                              yCoord + margin);
+                boolean inTerrain = tm.overlapsCollider(xCoord - reach,
+                                                        yCoord - reach,
+                                                        xCoord + reach,
+                                                        yCoord + reach);
                 if (y == 0 && yOffset == 0) {
-                    wld.QueryAABB(new QueryCallback() {
-                                      @Override
-                                      public boolean reportFixture(Fixture fixture) {
-                                          if (fixture.getBody().getUserData() instanceof Tile)
-                                              hasBody[0] = true;
-                                          return false;
-                                      }
-                                  },
-                                  xCoord - margin,
-                                  yCoord + 2 * margin,
-                                  xCoord + margin,
-                                  yCoord + 4 * margin);
+                    inTerrain |= tm.overlapsCollider(
+                            xCoord - reach,
+                            yCoord + 2 * TERRAIN_MARGIN - TERRAIN_SKIN,
+                            xCoord + reach,
+                            yCoord + 4 * TERRAIN_MARGIN + TERRAIN_SKIN);
                 }
-                plantGrid[x][y] = new PlantNode(xCoord,
-                                                yCoord,
-                                                yOffset != 0,
-                                                !hasBody[0],
-                                                tilemapParams);
+                if (!inTerrain) enabledNodes.set(cell(x, y));
+            }
+        }
+    }
+
+    /**
+     * Returns the cell of the given node in the plant grid.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    private int cell(int xIndex, int yIndex) {
+        return yIndex * width + xIndex;
+    }
+
+    /**
+     * Returns the node bits of the given cell.
+     *
+     * @param c the cell.
+     */
+    private int bits(int c) {
+        Chunk chunk = chunks[c / chunkCells];
+        if (chunk == null) return emptyBits(c);
+        return chunk.nodes[c % chunkCells];
+    }
+
+    /**
+     * Returns the node bits of the given cell with nothing grown on it.
+     *
+     * @param c the cell.
+     */
+    private int emptyBits(int c) {
+        int bits = (c % width) % 2 == 1 ? OFFSET : 0;
+        if (enabledNodes.get(c)) bits |= ENABLED;
+        return bits;
+    }
+
+    /**
+     * Sets the node bits of the given cell, allocating its chunk if they
+     * have any contents and dropping it if this empties it.
+     *
+     * @param c    the cell.
+     * @param bits the new node bits.
+     */
+    private void setBits(int c, int bits) {
+        int k = c / chunkCells;
+        Chunk chunk = chunks[k];
+        if (chunk == null) {
+            if ((bits & CONTENTS) == 0) return;
+            chunk = allocateChunk(k);
+        }
+        int i = c % chunkCells;
+        int changed = chunk.nodes[i] ^ bits;
+        if ((changed & PLACEMENT_BITS) != 0) gridVersion++;
+        if ((changed & SITE_BITS) != 0 && !sitesRebuilt) {
+            // A change refreshes up to four sites, a rebuild every cell once
+            if (siteChanges.size >= width * height / 4) {
+                siteChanges.clear();
+                sitesRebuilt = true;
+            } else {
+                siteChanges.add(c);
             }
         }
+        boolean had = (chunk.nodes[i] & CONTENTS) != 0;
+        boolean has = (bits & CONTENTS) != 0;
+        chunk.nodes[i] = bits;
+        if (has && !had) {
+            chunk.occupied++;
+        } else if (had && !has && --chunk.occupied == 0) {
+            chunks[k] = null;
+        }
+    }
+
+    /**
+     * Sets the given node bits of the given cell.
+     *
+     * @param c    the cell.
+     * @param mask the bits to set.
+     */
+    private void addBits(int c, int mask) {
+        setBits(c, bits(c) | mask);
+    }
+
+    /**
+     * Clears the given node bits of the given cell.
+     *
+     * @param c    the cell.
+     * @param mask the bits to clear.
+     */
+    private void clearBits(int c, int mask) {
+        setBits(c, bits(c) & ~mask);
+    }
+
+    /**
+     * Returns the chunk holding the given cell, allocating it if needed.
+     *
+     * @param c the cell.
+     */
+    private Chunk chunkAt(int c) {
+        int k = c / chunkCells;
+        Chunk chunk = chunks[k];
+        return chunk != null ? chunk : allocateChunk(k);
+    }
+
+    /**
+     * Allocates the chunk at the given index with nothing grown in it.
+     *
+     * @param k index of the chunk.
+     * @return the new chunk
+     */
+    private Chunk allocateChunk(int k) {
+        Chunk chunk = new Chunk(chunkCells);
+        int first = k * chunkCells;
+        for (int i = 0; i < chunkCells; i++) {
+            chunk.nodes[i] = emptyBits(first + i);
+        }
+        chunks[k] = chunk;
+        return chunk;
+    }
+
+    /**
+     * Returns the branch of the given cell in the given direction, null if
+     * none.
+     *
+     * @param c         the cell.
+     * @param direction direction of the branch.
+     */
+    private Branch branchAt(int c, BranchDirection direction) {
+        Chunk chunk = chunks[c / chunkCells];
+        if (chunk == null) return null;
+        return chunk.branches[(c % chunkCells) * DIRECTIONS.length +
+                direction.ordinal()];
+    }
+
+    /**
+     * Returns the leaf of the given cell, null if none.
+     *
+     * @param c the cell.
+     */
+    private Leaf leafAt(int c) {
+        Chunk chunk = chunks[c / chunkCells];
+        return chunk == null ? null : chunk.leaves[c % chunkCells];
+    }
+
+    /**
+     * Returns the hazard of the given cell, null if none.
+     *
+     * @param c the cell.
+     */
+    private Hazard hazardAt(int c) {
+        Chunk chunk = chunks[c / chunkCells];
+        return chunk == null ? null : chunk.hazards[c % chunkCells];
+    }
+
+    /**
+     * Returns the lowest row at or above the given one that may have any
+     * plant parts or hazards, skipping every chunk with nothing in it.
+     *
+     * @param yIndex the row to start from.
+     * @return the row found, or the height of the grid if there is none
+     */
+    public int nextOccupiedRow(int yIndex) {
+        yIndex = Math.max(yIndex, 0);
+        for (int k = yIndex / CHUNK_ROWS; k < chunks.length; k++) {
+            if (chunks[k] != null) return Math.max(yIndex, k * CHUNK_ROWS);
+        }
+        return height;
+    }
+
+    /**
+     * Returns the cells whose branches, leaf or hazard changed since the
+     * last call to {@link #clearSiteChanges()}, possibly repeated. Incomplete
+     * if {@link #sitesRebuilt()} is true.
+     */
+    public IntArray getSiteChanges() {
+        return siteChanges;
+    }
+
+    /**
+     * Returns whether the grid was rebuilt since the last call to
+     * {@link #clearSiteChanges()}, so every site must be checked again.
+     */
+    public boolean sitesRebuilt() {
+        return sitesRebuilt;
+    }
+
+    /**
+     * Forgets every site change, once they have been applied.
+     */
+    public void clearSiteChanges() {
+        siteChanges.clear();
+        sitesRebuilt = false;
+    }
+
+    /**
+     * Returns the x-coordinate of the nodes in the given column.
+     *
+     * @param xIndex x-index of the column.
+     */
+    private float nodeX(int xIndex) {
+        return (xIndex * horizontalSpacing) + xOrigin;
+    }
+
+    /**
+     * Returns the y-coordinate of the given node.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    private float nodeY(int xIndex, int yIndex) {
+        float yOffset = 0;
+        if ((bits(cell(xIndex, yIndex)) & OFFSET) != 0)
+            yOffset = branchLength / 2f;
+        return yOrigin + yOffset + (yIndex * branchLength);
     }
 
     /**
@@ -279,21 +696,79 @@ public class PlantController {
      * @param y the y-coordinate to grow the branch at.
      */
     public Branch growBranch(float x, float y) {
-        IntVector2 nodeIndex = coordToIndex(x, y);
-        int xIndex = nodeIndex.x;
-        int yIndex = nodeIndex.y;
-        BranchDirection direction = worldToBranch(x, y);
+        Placement p = queryBranch(x, y);
         if (!resourceController.canGrowBranch()) {
             resourceController.setNotEnough(true);
         }
-        if (direction == null || !resourceController.canGrowBranch() ||
-                !canBuildTowards(xIndex, yIndex, direction) ||
-                !plantGrid[xIndex][yIndex].isEnabled()) {
+        if (!p.buildable || !resourceController.canGrowBranch()) {
             soundController.playSound(errorSound);
             return null;
         }
-        return plantGrid[xIndex][yIndex].makeBranch(direction,
-                                                    Branch.BranchType.NORMAL);
+        return makeBranch(p.cell % width,
+                          p.cell / width,
+                          p.direction,
+                          Branch.BranchType.NORMAL);
+    }
+
+    /**
+     * Answers where a branch would grow for the given position, reusing the
+     * last answer if the position aims at the same node and direction and
+     * the grid has not changed since.
+     *
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @return the placement, valid until the next query
+     */
+    private Placement queryBranch(float x, float y) {
+        IntVector2 nodeIndex = coordToIndex(x, y);
+        int xIndex = nodeIndex.x;
+        int yIndex = nodeIndex.y;
+        int c = -1;
+        BranchDirection aim = null;
+        if (inBounds(xIndex, yIndex)) {
+            c = cell(xIndex, yIndex);
+            aim = getBranchDirection(x - nodeX(xIndex),
+                                     y - nodeY(xIndex, yIndex));
+        }
+        Placement p = branchPlacement;
+        if (p.matches(c, aim, gridVersion)) return p;
+        p.reset(c, aim, gridVersion);
+        if (aim == null || (bits(c) & ENABLED) == 0) return p;
+        if (hasBranch(xIndex, yIndex, aim) ||
+                !canGrowAtIndex(xIndex, yIndex)) return p;
+        p.direction = aim;
+        p.buildable = canBuildTowards(xIndex, yIndex, aim);
+        return p;
+    }
+
+    /**
+     * Answers whether a leaf could grow or be upgraded at the node closest
+     * to the given position, reusing the last answer if it is the same node
+     * and the grid has not changed since.
+     *
+     * @param x the x-coordinate.
+     * @param y the y-coordinate.
+     * @return the placement, valid until the next query
+     */
+    private Placement queryLeaf(float x, float y) {
+        IntVector2 nodeIndex = coordToIndex(x, y);
+        int xIndex = nodeIndex.x;
+        int yIndex = nodeIndex.y;
+        int c = inBounds(xIndex, yIndex) ? cell(xIndex, yIndex) : -1;
+        Placement p = leafPlacement;
+        if (p.matches(c, null, gridVersion)) return p;
+        p.reset(c, null, gridVersion);
+        if (c < 0) return p;
+        int b = bits(c);
+        p.enabled = (b & ENABLED) != 0;
+        p.hasLeaf = (b & LEAF) != 0;
+        if (p.hasLeaf) {
+            p.upgradable = getLeafType(xIndex, yIndex) != Leaf.leafType.BOUNCY;
+        } else {
+            p.buildable = (yIndex > 0 || (b & OFFSET) != 0) &&
+                    canGrowAtIndex(xIndex, yIndex);
+        }
+        return p;
     }
 
     /**
@@ -307,7 +782,7 @@ public class PlantController {
     private boolean canBuildTowards(int xIndex,
                                     int yIndex,
                                     BranchDirection direction) {
-        int yIndexOffset = plantGrid[xIndex][yIndex].isOffset() ? 1 : 0;
+        int yIndexOffset = isOffset(xIndex, yIndex) ? 1 : 0;
         switch (direction) {
             case LEFT:
                 return inBounds(xIndex - 1, yIndex + yIndexOffset) &&
@@ -330,7 +805,7 @@ public class PlantController {
      */
     public boolean isNodeEnabled(int xIndex, int yIndex) {
         if (!inBounds(xIndex, yIndex)) return false;
-        return plantGrid[xIndex][yIndex].isEnabled();
+        return (bits(cell(xIndex, yIndex)) & ENABLED) != 0;
     }
 
     /**
@@ -341,11 +816,84 @@ public class PlantController {
      * @param h      hazard.
      */
     public void setHazard(int xIndex, int yIndex, Hazard h) {
-        plantGrid[xIndex][yIndex].setHazard(h);
+        int c = cell(xIndex, yIndex);
+        Chunk chunk = chunkAt(c);
+        int i = c % chunkCells;
+        if (chunk.hazards[i] != null) chunk.hazards[i].setNodeCell(-1);
+        chunk.hazards[i] = h;
+        h.setNodeCell(c);
+        int bits = bits(c) | HAZARD;
+        if (h.getType() == Model.ModelType.BUG) bits |= BUG;
+        else bits &= ~BUG;
+        Leaf leaf = chunk.leaves[i];
+        if (leaf != null && h.getType() == Model.ModelType.BUG &&
+                leaf.getLeafType() != Leaf.leafType.BOUNCY) {
+            leaf.setBeingEaten(true);
+            if ((bits & ATTACKED) == 0) {
+                bits |= ATTACKED;
+                attackedLeaves.add(c);
+            }
+        }
+        setBits(c, bits);
+    }
+
+    /**
+     * Marks the given node as burning. Fires are kept by the fire grid, so
+     * the node holds no hazard model.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    public void setFire(int xIndex, int yIndex) {
+        int c = cell(xIndex, yIndex);
+        Chunk chunk = chunkAt(c);
+        int i = c % chunkCells;
+        if (chunk.hazards[i] != null) chunk.hazards[i].setNodeCell(-1);
+        chunk.hazards[i] = null;
+        setBits(c, (bits(c) | HAZARD) & ~BUG);
+    }
+
+    /**
+     * Clears the fire mark of the given node, if it is burning.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    public void removeFire(int xIndex, int yIndex) {
+        if ((bits(cell(xIndex, yIndex)) & (HAZARD | BUG)) == HAZARD &&
+                getHazard(xIndex, yIndex) == null) {
+            removeHazard(xIndex, yIndex);
+        }
     }
 
+    /**
+     * Removes any hazard from the given node. Does not remove it from the
+     * world.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
     public void removeHazard(int xIndex, int yIndex) {
-        plantGrid[xIndex][yIndex].removeHazard();
+        int c = cell(xIndex, yIndex);
+        Chunk chunk = chunks[c / chunkCells];
+        if (chunk == null) return;
+        int i = c % chunkCells;
+        if (chunk.hazards[i] != null) chunk.hazards[i].setNodeCell(-1);
+        chunk.hazards[i] = null;
+        if (chunk.leaves[i] != null) {
+            chunk.leaves[i].setBeingEaten(false);
+        }
+        clearBits(c, HAZARD | BUG);
+    }
+
+    /**
+     * Returns the hazard at the given node, null if none.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    public Hazard getHazard(int xIndex, int yIndex) {
+        return hazardAt(cell(xIndex, yIndex));
     }
 
     /**
@@ -355,7 +903,7 @@ public class PlantController {
      * @param yIndex y-index of the node.
      */
     public boolean hasHazard(int xIndex, int yIndex) {
-        return plantGrid[xIndex][yIndex].hasHazard();
+        return (bits(cell(xIndex, yIndex)) & HAZARD) != 0;
     }
 
     /**
@@ -377,8 +925,8 @@ public class PlantController {
         if (resourceController.canUpgrade()) {
             resourceController.decrementUpgrade();
             soundController.playSound(upgradeSound);
-            plantGrid[xIndex][yIndex].unmakeBranch(direction);
-            return plantGrid[xIndex][yIndex].makeBranch(direction, type);
+            unmakeBranch(xIndex, yIndex, direction);
+            return makeBranch(xIndex, yIndex, direction, type);
         }
         return null;
     }
@@ -409,19 +957,15 @@ public class PlantController {
      * @return the grown leaf object, null if it could not be grown.
      */
     public Leaf growLeaf(float x, float y, Leaf.leafType lt, float width) {
-        IntVector2 nodeIndex = coordToIndex(x, y);
-        int xIndex = nodeIndex.x;
-        int yIndex = nodeIndex.y;
+        Placement p = queryLeaf(x, y);
+        int xIndex = p.cell % this.width;
+        int yIndex = p.cell / this.width;
         Leaf l;
-        if (plantGrid[xIndex][yIndex].hasLeaf() &&
-                plantGrid[xIndex][yIndex].getLeafType() !=
-                        Leaf.leafType.BOUNCY) {
+        if (p.upgradable) {
             l = growBouncyLeaf(xIndex, yIndex, width);
         } else {
-            l = growNormalLeaf(xIndex, yIndex, lt, width);
+            l = growNormalLeaf(xIndex, yIndex, p.buildable, lt, width);
         }
-        if (l != null && l.getY() > getMaxPlantHeight())
-            maxPlantIndex.set(xIndex, yIndex);
         return l;
     }
 
@@ -439,37 +983,36 @@ public class PlantController {
             soundController.playSound(errorSound);
             return null;
         }
-        plantGrid[xIndex][yIndex].unmakeLeaf();
+        unmakeLeaf(xIndex, yIndex);
         resourceController.decrementUpgrade();
         soundController.playSound(upgradeSound);
-        return plantGrid[xIndex][yIndex].makeLeaf(Leaf.leafType.BOUNCY, width);
+        return makeLeaf(xIndex, yIndex, Leaf.leafType.BOUNCY, width);
     }
 
     /**
      * Grows a normal leaf at the specified node.
      *
-     * @param xIndex x-index of the node.
-     * @param yIndex y-index of the node.
-     * @param lt     type of leaf to grow.
-     * @param width  width of the leaf.
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param growable  whether the node can take a new leaf.
+     * @param lt        type of leaf to grow.
+     * @param width     width of the leaf.
      * @return the grown leaf object, null if it could not be grown.
      */
     private Leaf growNormalLeaf(int xIndex,
                                 int yIndex,
+                                boolean growable,
                                 Leaf.leafType lt,
                                 float width) {
         if (!resourceController.canGrowLeaf()) {
             resourceController.setNotEnough(true);
         }
-        if (!inBounds(xIndex, yIndex) || !resourceController.canGrowLeaf() ||
-                plantGrid[xIndex][yIndex].hasLeaf() ||
-                (yIndex == 0 && !plantGrid[xIndex][yIndex].isOffset()) ||
-                !canGrowAtIndex(xIndex, yIndex)) {
+        if (!growable || !resourceController.canGrowLeaf()) {
             soundController.playSound(errorSound);
             return null;
         }
         soundController.playSound(leafSound);
-        return plantGrid[xIndex][yIndex].makeLeaf(lt, width);
+        return makeLeaf(xIndex, yIndex, lt, width);
 
     }
 
@@ -477,11 +1020,25 @@ public class PlantController {
      * @return the maximum y-coordinate that the plant currently reaches.
      */
     public float getMaxPlantHeight() {
-        if (getMaxPlantXIndex() != -1 &&
-                inBounds(getMaxPlantXIndex(), getMaxPlantYIndex())) {
-            return plantGrid[getMaxPlantXIndex()][getMaxPlantYIndex()].y;
-        }
-        return 0;
+        if (topLevel < 0) return 0;
+        float yOffset = 0;
+        if ((topLevel & 1) != 0) yOffset = branchLength / 2f;
+        return yOrigin + yOffset + ((topLevel >> 1) * branchLength);
+    }
+
+    /**
+     * Adds to the number of plant parts at the level of the given node,
+     * moving the top level if needed.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     * @param n      the number of parts added, negative if removed.
+     */
+    private void countPlantParts(int xIndex, int yIndex, int n) {
+        int level = 2 * yIndex + (isOffset(xIndex, yIndex) ? 1 : 0);
+        levelCounts[level] += n;
+        if (n > 0) topLevel = Math.max(topLevel, level);
+        while (topLevel >= 0 && levelCounts[topLevel] == 0) topLevel--;
     }
 
     /**
@@ -510,22 +1067,34 @@ public class PlantController {
         //If this is a node at the base of the plant, return true
         if (yIndex == 0 && lowerNode) return true;
         //If this node is disabled, then we cannot grow at it
-        if (!plantGrid[xIndex][yIndex].isEnabled()) return false;
+        if ((bits(cell(xIndex, yIndex)) & ENABLED) == 0) return false;
+        return hasIncomingBranch(xIndex, yIndex);
+    }
+
+    /**
+     * Returns whether a branch from a node below ends at the given node.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-Index of the node.
+     */
+    private boolean hasIncomingBranch(int xIndex, int yIndex) {
+        boolean lowerNode = xIndex % 2 == 0;
         int yOff = 0;
         if (lowerNode) yOff = 1;
 
         boolean below = false;
         if (inBounds(xIndex, yIndex - 1))
-            below = plantGrid[xIndex][yIndex - 1].hasBranchInDirection(
-                    BranchDirection.MIDDLE);
+            below = hasBranch(xIndex, yIndex - 1, BranchDirection.MIDDLE);
         boolean downLeft = false;
         if (inBounds(xIndex - 1, yIndex - yOff))
-            downLeft = plantGrid[xIndex - 1][yIndex -
-                    yOff].hasBranchInDirection(BranchDirection.RIGHT);
+            downLeft = hasBranch(xIndex - 1,
+                                 yIndex - yOff,
+                                 BranchDirection.RIGHT);
         boolean downRight = false;
         if (inBounds(xIndex + 1, yIndex - yOff))
-            downRight = plantGrid[xIndex + 1][yIndex -
-                    yOff].hasBranchInDirection(BranchDirection.LEFT);
+            downRight = hasBranch(xIndex + 1,
+                                  yIndex - yOff,
+                                  BranchDirection.LEFT);
         return below || downLeft || downRight;
     }
 
@@ -533,27 +1102,41 @@ public class PlantController {
      * @return the x-index of the highest plant position.
      */
     public int getMaxPlantXIndex() {
-        return maxPlantIndex.x;
+        if (topLevel < 0) return -1;
+        int yIndex = topLevel >> 1;
+        for (int xIndex = topLevel & 1; xIndex < width; xIndex += 2) {
+            if (hasLeaf(xIndex, yIndex) || hasIncomingBranch(xIndex, yIndex))
+                return xIndex;
+        }
+        return -1;
     }
 
     /**
      * @return the y-index of the highest plant position.
      */
     public int getMaxPlantYIndex() {
-        return maxPlantIndex.y;
+        return topLevel >> 1;
     }
 
     /**
      * Returns whether there is a leaf at the closest node to the given
      * position.
      *
-     * @param pos position vector to check.
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     */
+    public boolean hasLeafAt(float x, float y) {
+        return queryLeaf(x, y).hasLeaf;
+    }
+
+    /**
+     * Returns whether the node closest to the given position is enabled.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
      */
-    public boolean hasLeaf(Vector2 pos) {
-        float x = pos.x;
-        float y = pos.y;
-        IntVector2 n = coordToIndex(x, y);
-        return hasLeaf(n.x, n.y);
+    public boolean isNodeEnabledAt(float x, float y) {
+        return queryLeaf(x, y).enabled;
     }
 
     /**
@@ -563,12 +1146,16 @@ public class PlantController {
      * @param yIndex y-index of the node.
      */
     public boolean hasLeaf(int xIndex, int yIndex) {
-        return plantGrid[xIndex][yIndex].hasLeaf();
+        return (bits(cell(xIndex, yIndex)) & LEAF) != 0;
     }
 
     /**
-     * Propagates any destruction queued in the destruction queue using the
+     * Propagates any destruction queued in the destruction waves using the
      * coyote time constants. This method should be called every frame.
+     * <p>
+     * At most DESTRUCTION_BUDGET nodes are destroyed per call, so a wave
+     * too large for one frame is spread over the next ones, and the coyote
+     * time until the following wave starts once it is done.
      *
      * @param dt delta time.
      * @return a set of bugs whose leaves were destroyed.
@@ -576,45 +1163,155 @@ public class PlantController {
     public ObjectSet<Bug> propagateDestruction(float dt) {
         plantCoyoteTimeRemaining -= dt;
         removedHazards.clear();
-        if (destructionQueue.isEmpty()) return removedHazards;
+        if (pendingDestructions == 0) return removedHazards;
         if (plantCoyoteTimeRemaining > 0) return removedHazards;
-        currentQueue.clear();
-        destructionQueue.forEach(v -> currentQueue.addLast(v));
-        for (IntVector2 n : currentQueue) {
-            destroyRecursivelyAt(n.x, n.y);
-            destructionQueue.removeValue(n, true);
+        while (destructionWaves[waveIndex(currentWave)].isEmpty()) {
+            currentWave++;
         }
-        return removedHazards;
+        IntArray wave = destructionWaves[waveIndex(currentWave)];
+        boolean destroyed = false;
+        int end = Math.min(wave.size, waveCursor + DESTRUCTION_BUDGET);
+        for (; waveCursor < end; waveCursor++) {
+            int c = wave.get(waveCursor);
+            if (c < 0) {
+                c = ~c;
+                clearBits(c, DOOMED);
+            } else {
+                // Destroyed already, or saved by a branch grown since
+                if ((bits(c) & DOOMED) == 0) continue;
+                clearBits(c, DOOMED);
+                if (collapseWave(c % width, c / width) < 0) continue;
+            }
+            destroyed |= destroyRecursivelyAt(c % width, c / width);
+        }
+        if (destroyed && !waveDestroyed) {
+            soundController.playSound(destroySound);
+            waveDestroyed = true;
+        }
+        if (waveCursor < wave.size) return removedHazards;
+        pendingDestructions -= wave.size;
+        wave.clear();
+        waveCursor = 0;
+        waveDestroyed = false;
+        currentWave++;
+        if (pendingDestructions > 0)
+            plantCoyoteTimeRemaining = PLANT_COYOTE_TIME;
+        return removedHazards;
     }
 
     /**
-     * Recursively destroys the plant upwards from a certain node, populating
-     * the destruction queue so that the unsupported section of the plant
-     * going upwards will be destroyed progressively using the coyote time
-     * constants. Does <b>not</b> recalculate the maximum plant index; this
-     * should be done separately after calling this method externally by
-     * calling {@link #recalculateMaxPlantIndex()}.
+     * Destroys the plant at a certain node, then finds everything above it
+     * that was only held up by it and schedules it into the destruction
+     * waves, so that the unsupported section of the plant going upwards will
+     * be destroyed progressively using the coyote time constants.
      *
      * @param xIndex the x-index of the node.
      * @param yIndex the y-index of the node.
-     */
-    private void destroyRecursivelyAt(int xIndex, int yIndex) {
-        if (!inBounds(xIndex, yIndex) || nodeIsEmpty(xIndex, yIndex)) return;
-        PlantNode n = plantGrid[xIndex][yIndex];
-        if (n.getHazard() instanceof Bug bug) removedHazards.add(bug);
-        n.unmakeLeaf();
-        n.removeHazard();
-        for (BranchDirection d : BranchDirection.values()) {
-            if (n.hasBranchInDirection(d)) {
-                n.unmakeBranch(d);
+     * @return whether there was anything at the node to destroy
+     */
+    private boolean destroyRecursivelyAt(int xIndex, int yIndex) {
+        if (!inBounds(xIndex, yIndex) || nodeIsEmpty(xIndex, yIndex))
+            return false;
+        if (getHazard(xIndex, yIndex) instanceof Bug bug)
+            removedHazards.add(bug);
+        unmakeLeaf(xIndex, yIndex);
+        removeHazard(xIndex, yIndex);
+        frontier.clear();
+        for (BranchDirection d : DIRECTIONS) {
+            if (hasBranch(xIndex, yIndex, d)) {
+                unmakeBranch(xIndex, yIndex, d);
                 IntVector2 next = getNodeTowards(xIndex, yIndex, d);
-                if (!canGrowAtIndex(next.x, next.y)) {
-                    destructionQueue.addLast(new IntVector2(next.x, next.y));
-                    plantCoyoteTimeRemaining = PLANT_COYOTE_TIME;
+                frontier.add(cell(next.x, next.y));
+            }
+        }
+        scheduleCollapse();
+        return true;
+    }
+
+    /**
+     * Walks up from the nodes in the frontier, dooming every node left with
+     * no support and scheduling it one wave after the last of its supports.
+     * Each node is checked again whenever another of its supports is doomed,
+     * so the walk is a single breadth-first pass over the affected nodes.
+     */
+    private void scheduleCollapse() {
+        for (int i = 0; i < frontier.size; i++) {
+            int c = frontier.get(i);
+            if ((bits(c) & DOOMED) != 0) continue;
+            int x = c % width;
+            int y = c / width;
+            int wave = collapseWave(x, y);
+            if (wave < 0) continue;
+            addBits(c, DOOMED);
+            chunkAt(c).doomedWaves[c % chunkCells] = wave;
+            destructionWaves[waveIndex(wave)].add(c);
+            pendingDestructions++;
+            for (BranchDirection d : DIRECTIONS) {
+                if (hasBranch(x, y, d)) {
+                    IntVector2 next = getNodeTowards(x, y, d);
+                    frontier.add(cell(next.x, next.y));
                 }
             }
         }
-        soundController.playSound(destroySound);
+    }
+
+    /**
+     * Returns the wave the given node should collapse in, one after the last
+     * of the doomed nodes holding it up, or -1 if any branch from a node that
+     * is not doomed still holds it up.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    private int collapseWave(int xIndex, int yIndex) {
+        int yOff = xIndex % 2 == 0 ? 1 : 0;
+        int wave = currentWave;
+        if (inBounds(xIndex, yIndex - 1))
+            wave = supportWave(xIndex,
+                               yIndex - 1,
+                               BranchDirection.MIDDLE,
+                               wave);
+        if (wave >= 0 && inBounds(xIndex - 1, yIndex - yOff))
+            wave = supportWave(xIndex - 1,
+                               yIndex - yOff,
+                               BranchDirection.RIGHT,
+                               wave);
+        if (wave >= 0 && inBounds(xIndex + 1, yIndex - yOff))
+            wave = supportWave(xIndex + 1,
+                               yIndex - yOff,
+                               BranchDirection.LEFT,
+                               wave);
+        return wave < 0 ? -1 : wave + 1;
+    }
+
+    /**
+     * Folds one possible support of a node into its collapse wave.
+     *
+     * @param xIndex    x-index of the supporting node.
+     * @param yIndex    y-index of the supporting node.
+     * @param direction direction of the supporting branch.
+     * @param wave      the latest wave of the supports so far.
+     * @return the latest wave including this support, or -1 if it holds the
+     * node up
+     */
+    private int supportWave(int xIndex,
+                            int yIndex,
+                            BranchDirection direction,
+                            int wave) {
+        int c = cell(xIndex, yIndex);
+        int bits = bits(c);
+        if ((bits & (BRANCH << direction.ordinal())) == 0) return wave;
+        if ((bits & DOOMED) == 0) return -1;
+        return Math.max(wave, chunkAt(c).doomedWaves[c % chunkCells]);
+    }
+
+    /**
+     * Returns the index of the given wave in the ring.
+     *
+     * @param wave the wave number.
+     */
+    private int waveIndex(int wave) {
+        return wave % destructionWaves.length;
     }
 
     /**
@@ -624,7 +1321,7 @@ public class PlantController {
      * @param yIndex y-index of the node to check.
      */
     public boolean nodeIsEmpty(int xIndex, int yIndex) {
-        return plantGrid[xIndex][yIndex].isEmpty();
+        return (bits(cell(xIndex, yIndex)) & (BRANCHES | LEAF)) == 0;
     }
 
     /**
@@ -638,7 +1335,7 @@ public class PlantController {
     private IntVector2 getNodeTowards(int xIndex,
                                       int yIndex,
                                       BranchDirection direction) {
-        int yIndexOffset = plantGrid[xIndex][yIndex].isOffset() ? 1 : 0;
+        int yIndexOffset = isOffset(xIndex, yIndex) ? 1 : 0;
         switch (direction) {
             case LEFT:
                 return cacheIntVector.set(xIndex - 1, yIndex + yIndexOffset);
@@ -651,57 +1348,18 @@ public class PlantController {
     }
 
     /**
-     * Schedules destruction of the given node by adding it to the
-     * destruction queue.
+     * Schedules destruction of the given node by adding it to the next
+     * destruction wave.
      *
      * @param xIndex x-index of the node.
      * @param yIndex y-index of the node.
      */
     public void scheduleDestruction(int xIndex, int yIndex) {
-        destructionQueue.addFirst(new IntVector2(xIndex, yIndex));
-        plantCoyoteTimeRemaining = PLANT_COYOTE_TIME;
-    }
-
-    /**
-     * Recursively recalculates the maximum plant index values. Should be
-     * called once after any destruction operations. <b>Should not under any
-     * circumstances be called every frame.</b>
-     */
-    public void recalculateMaxPlantIndex() {
-        cacheIntVector.set(0, 0);
-        for (int xIndex = 0; xIndex < width; xIndex++) {
-            IntVector2 candidate = calculateHighestFromNode(xIndex, 0);
-            if (plantGrid[candidate.x][candidate.y].y >
-                    plantGrid[maxPlantIndex.x][maxPlantIndex.y].y)
-                cacheIntVector.set(candidate);
-        }
-        maxPlantIndex = new IntVector2(cacheIntVector);
-    }
-
-    /**
-     * Recursively calculates the higest plant indices from the given node.
-     *
-     * @param xIndex x-index of the node.
-     * @param yIndex y-index of the node.
-     * @return the highest plant indices from the given node.
-     */
-    private IntVector2 calculateHighestFromNode(int xIndex, int yIndex) {
-        PlantNode n = plantGrid[xIndex][yIndex];
-        for (BranchDirection d : BranchDirection.values()) {
-            if (n.hasBranchInDirection(d)) {
-                IntVector2 next = getNodeTowards(xIndex, yIndex, d);
-                IntVector2 highestOnBranch = calculateHighestFromNode(next.x,
-                                                                      next.y);
-                nextNodes.push(new IntVector2(highestOnBranch));
-            }
-        }
-        IntVector2 highest = new IntVector2(xIndex, yIndex);
-        for (IntVector2 next : nextNodes) {
-            if (plantGrid[next.x][next.y].y > plantGrid[highest.x][highest.y].y)
-                highest = next;
-        }
-        nextNodes.clear();
-        return highest;
+        if (!inBounds(xIndex, yIndex)) return;
+        destructionWaves[waveIndex(currentWave)].add(~cell(xIndex, yIndex));
+        pendingDestructions++;
+        // A wave already under way keeps going on the next frame
+        if (waveCursor == 0) plantCoyoteTimeRemaining = PLANT_COYOTE_TIME;
     }
 
     /**
@@ -709,12 +1367,12 @@ public class PlantController {
      * level, using the buffer specified as a constant. To be used for sun
      * spawning.
      */
-    public PooledList<Float> getPlantXPositions() {
-        PooledList<Float> xPositions = new PooledList<>();
+    public FloatArray getPlantXPositions() {
+        FloatArray xPositions = new FloatArray(width);
         for (int xIndex = 0; xIndex < width; xIndex++) {
             // The -1 is here to access the top row (index is len - 1)
-            if (plantGrid[xIndex][height - 1 - SUN_SPAWN_BUFFER].isEnabled())
-                xPositions.push(plantGrid[xIndex][0].x);
+            if ((bits(cell(xIndex, height - 1 - SUN_SPAWN_BUFFER)) &
+                    ENABLED) != 0) xPositions.add(nodeX(xIndex));
         }
         return xPositions;
     }
@@ -724,34 +1382,54 @@ public class PlantController {
      */
     public int countTimerDeductions() {
         int count = 0;
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                Leaf l = plantGrid[x][y].getLeaf();
-                if (l != null && l.healthBelowMark()) {
-                    count++;
-                }
+        for (int i = attackedLeaves.size - 1; i >= 0; i--) {
+            int c = attackedLeaves.get(i);
+            Leaf leaf = leafAt(c);
+            if (leaf != null && leaf.healthBelowMark()) {
+                count++;
+            } else if (leaf == null || !leaf.isBeingEaten()) {
+                // Its health will not move again until another bug lands
+                dropAttackedLeaf(i);
             }
         }
         return count;
     }
 
+    /**
+     * Removes the given entry from the list of leaves under attack.
+     *
+     * @param i index of the entry.
+     */
+    private void dropAttackedLeaf(int i) {
+        clearBits(attackedLeaves.get(i), ATTACKED);
+        attackedLeaves.removeIndex(i);
+    }
+
     /**
      * Removes the given hazard from any nodes where it is present.
      *
      * @param h hazard to remove.
      */
     public void removeHazardFromNodes(Hazard h) {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (plantGrid[x][y].getHazard() == h) {
-                    plantGrid[x][y].removeHazard();
-                    if (plantGrid[x][y].hasLeaf() &&
-                            plantGrid[x][y].getLeaf().fullyEaten()) {
-                        plantGrid[x][y].unmakeLeaf();
-                    }
-                    return;
-                }
-            }
+        int c = h.getNodeCell();
+        // The cell may be stale if the grid was reset since
+        if (c < 0 || c >= width * height || hazardAt(c) != h) return;
+        int x = c % width;
+        int y = c / width;
+        removeHazard(x, y);
+        if (hasLeaf(x, y) && leafAt(c).fullyEaten()) {
+            unmakeLeaf(x, y);
+        }
+    }
+
+    /**
+     * Removes each of the given hazards from the node where it is present.
+     *
+     * @param hs hazards to remove.
+     */
+    public void removeHazardsFromNodes(Iterable<? extends Hazard> hs) {
+        for (Hazard h : hs) {
+            removeHazardFromNodes(h);
         }
     }
 
@@ -762,17 +1440,14 @@ public class PlantController {
      */
     public ObjectSet<Bug> removeDeadLeafBugs() {
         removedHazards.clear();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (plantGrid[x][y].hasLeaf() &&
-                        plantGrid[x][y].getLeaf().fullyEaten()) {
-                    Hazard h = plantGrid[x][y].getHazard();
-                    if (h instanceof Bug b) {
-                        removedHazards.add(b);
-                        plantGrid[x][y].removeHazard();
-                        plantGrid[x][y].unmakeLeaf();
-                    }
-                }
+        for (int i = attackedLeaves.size - 1; i >= 0; i--) {
+            int c = attackedLeaves.get(i);
+            if ((bits(c) & (LEAF | BUG)) == (LEAF | BUG) &&
+                    leafAt(c).fullyEaten()) {
+                removedHazards.add((Bug) hazardAt(c));
+                removeHazard(c % width, c / width);
+                unmakeLeaf(c % width, c / width);
+                dropAttackedLeaf(i);
             }
         }
         return removedHazards;
@@ -788,18 +1463,14 @@ public class PlantController {
      * @param y      y-coordinate.
      */
     public void drawGhostBranch(GameCanvas canvas, float x, float y) {
-        IntVector2 nodeIndex = coordToIndex(x, y);
-        int xIndex = nodeIndex.x;
-        int yIndex = nodeIndex.y;
-        BranchDirection direction = worldToBranch(x, y);
+        Placement p = queryBranch(x, y);
         // Checks!
-        if (!inBounds(xIndex, yIndex)) return;
-        if (direction == null) return;
-        if (plantGrid[xIndex][yIndex].hasBranchInDirection(direction)) return;
-        if (!canBuildTowards(xIndex, yIndex, direction)) return;
-        if (!canGrowAtIndex(xIndex, yIndex)) return;
+        if (!p.buildable) return;
         if (!resourceController.canGrowBranch()) return;
         // End checks
+        int xIndex = p.cell % width;
+        int yIndex = p.cell / width;
+        BranchDirection direction = p.direction;
         float angle;
         switch (direction) {
             case MIDDLE:
@@ -814,8 +1485,8 @@ public class PlantController {
             default:
                 angle = 0;
         }
-        ghostBranch.setX(plantGrid[xIndex][yIndex].getX());
-        ghostBranch.setY(plantGrid[xIndex][yIndex].getY());
+        ghostBranch.setX(nodeX(xIndex));
+        ghostBranch.setY(nodeY(xIndex, yIndex));
         ghostBranch.setAngle(angle);
         ghostBranch.setFilmStrip(branchTexture);
         ghostBranch.drawGhost(canvas);
@@ -831,29 +1502,7 @@ public class PlantController {
      * bounds.
      */
     public BranchDirection worldToBranch(float x, float y) {
-        // Convert screen coordinates to grid indices
-        IntVector2 nodeIndex = coordToIndex(x, y);
-        int xIndex = nodeIndex.x;
-        int yIndex = nodeIndex.y;
-        if (!isNodeEnabled(xIndex, yIndex)) return null;
-
-        // Convert indices back to world coordinates to find the center of the cell
-        Vector2 cellCenter = indexToWorldCoord(xIndex, yIndex);
-
-        // Calculate angle from the center of the node to the click position
-        float angle = (float) Math.atan2(y - cellCenter.y, x - cellCenter.x);
-
-        // Normalize angle into a range from 0 to 2*PI
-        angle = (angle + (float) (2 * Math.PI)) % (float) (2 * Math.PI);
-        if (angle >= Math.PI) return null;
-
-        // Divide the space around the node into six segments (each segment is 60 degrees)
-        BranchDirection direction = getBranchDirection(angle);
-
-        // Grow branch
-        if (!branchExists(xIndex, yIndex, direction) &&
-                canGrowAtIndex(xIndex, yIndex)) return direction;
-        return null;
+        return queryBranch(x, y).direction;
     }
 
     /**
@@ -863,33 +1512,23 @@ public class PlantController {
      * @param yIndex y-index of the node.
      */
     public Vector2 indexToWorldCoord(int xIndex, int yIndex) {
-        PlantNode n = plantGrid[xIndex][yIndex];
-        return cacheVector.set(n.x, n.y);
+        return cacheVector.set(nodeX(xIndex), nodeY(xIndex, yIndex));
     }
 
     /**
-     * Returns the best branch direction given an angle.
+     * Returns the best branch direction given an offset from a node. The
+     * space above the node is split into three 60 degree sectors, compared
+     * by slope rather than by angle.
      *
-     * @param angle the angle to check.
-     */
-    private BranchDirection getBranchDirection(float angle) {
-        BranchDirection direction;
-        if (angle < Math.PI / 3) {
-            direction = BranchDirection.RIGHT;
-        } else if (angle < 2 * Math.PI / 3) {
-            direction = BranchDirection.MIDDLE;
-        } else if (angle < Math.PI) {
-            direction = BranchDirection.LEFT;
-        }
-        // For branches under the node
-        else if (angle < 4 * Math.PI / 3) {
-            direction = BranchDirection.RIGHT;
-        } else if (angle < 5 * Math.PI / 3) {
-            direction = BranchDirection.MIDDLE;
-        } else {
-            direction = BranchDirection.LEFT;
-        }
-        return direction;
+     * @param dx x-offset from the node.
+     * @param dy y-offset from the node.
+     * @return the direction, or null if the offset is below the node.
+     */
+    private BranchDirection getBranchDirection(float dx, float dy) {
+        if (dy < 0 || (dy == 0 && dx < 0)) return null;
+        if (dy == 0 || dy < SECTOR_SLOPE * dx) return BranchDirection.RIGHT;
+        if (dy < -SECTOR_SLOPE * dx) return BranchDirection.LEFT;
+        return BranchDirection.MIDDLE;
     }
 
     /**
@@ -904,7 +1543,7 @@ public class PlantController {
                                 int yIndex,
                                 BranchDirection direction) {
         return (inBounds(xIndex, yIndex) &&
-                plantGrid[xIndex][yIndex].hasBranchInDirection(direction));
+                hasBranch(xIndex, yIndex, direction));
     }
 
     /**
@@ -920,18 +1559,15 @@ public class PlantController {
                               float leafWidth,
                               float x,
                               float y) {
-        IntVector2 nodeIndex = coordToIndex(x, y);
-        int xIndex = nodeIndex.x;
-        int yIndex = nodeIndex.y;
+        Placement p = queryLeaf(x, y);
         // Checks!
-        if (!inBounds(xIndex, yIndex)) return;
-        if (plantGrid[xIndex][yIndex].hasLeaf()) return;
-        if (yIndex <= 0 && !plantGrid[xIndex][yIndex].isOffset()) return;
-        if (!canGrowAtIndex(xIndex, yIndex)) return;
+        if (!p.buildable) return;
         if (!resourceController.canGrowLeaf()) return;
         // End checks
-        float xl = plantGrid[xIndex][yIndex].getX();
-        float yl = plantGrid[xIndex][yIndex].getY();
+        int xIndex = p.cell % width;
+        int yIndex = p.cell / width;
+        float xl = nodeX(xIndex);
+        float yl = nodeY(xIndex, yIndex);
         ghostLeaf.setPosition(xl, yl);
         ghostLeaf.setDimension(leafWidth, PlantNode.LEAF_HEIGHT);
         ghostLeaf.setType(type);
@@ -965,6 +1601,15 @@ public class PlantController {
         return canGrowAtIndex(xIndex, yIndex);
     }
 
+    /**
+     * Draws every branch and leaf of the plant in a batch call per texture.
+     *
+     * @param canvas the canvas.
+     */
+    public void drawPlant(GameCanvas canvas) {
+        renderer.draw(canvas);
+    }
+
     /**
      * Draws glow dots at the enabled bottom nodes.
      *
@@ -973,14 +1618,14 @@ public class PlantController {
     public void drawGlow(GameCanvas canvas) {
         float sclX = tilemapParams.tileWidth() / glowTexture.getWidth();
         float sclY = tilemapParams.tileHeight() / glowTexture.getHeight();
-        for (PlantNode[] col : plantGrid) {
-            if (!col[0].isOffset() && col[0].isEnabled()) {
+        for (int xIndex = 0; xIndex < width; xIndex++) {
+            if ((bits(cell(xIndex, 0)) & (OFFSET | ENABLED)) == ENABLED) {
                 canvas.draw(glowTexture,
                             Color.WHITE,
                             glowTexture.getWidth() / 2f,
                             0,
-                            col[0].x,
-                            col[0].y,
+                            nodeX(xIndex),
+                            nodeY(xIndex, 0),
                             0,
                             sclX,
                             sclY);
@@ -1085,7 +1730,34 @@ public class PlantController {
     public Branch.BranchType getBranchType(int xIndex,
                                            int yIndex,
                                            BranchDirection direction) {
-        return plantGrid[xIndex][yIndex].getBranchType(direction);
+        int bits = bits(cell(xIndex, yIndex));
+        if ((bits & (BRANCH << direction.ordinal())) == 0) return null;
+        if ((bits & (REINFORCED << direction.ordinal())) != 0)
+            return Branch.BranchType.REINFORCED;
+        return Branch.BranchType.NORMAL;
+    }
+
+    /**
+     * Sets the type of the branch in the given direction and resets its
+     * texture. Does nothing if there is no branch.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction the direction of the branch.
+     * @param type      the branch type.
+     */
+    public void setBranchType(int xIndex,
+                              int yIndex,
+                              BranchDirection direction,
+                              Branch.BranchType type) {
+        if (!hasBranch(xIndex, yIndex, direction)) return;
+        int c = cell(xIndex, yIndex);
+        Branch b = branchAt(c, direction);
+        b.setBranchType(type);
+        b.setFilmStrip(getRandomBranchFilmstrip());
+        if (type == Branch.BranchType.REINFORCED)
+            addBits(c, REINFORCED << direction.ordinal());
+        else clearBits(c, REINFORCED << direction.ordinal());
     }
 
     /**
@@ -1095,7 +1767,9 @@ public class PlantController {
      * @param yIndex y-index of the node to check.
      */
     public Leaf.leafType getLeafType(int xIndex, int yIndex) {
-        return plantGrid[xIndex][yIndex].getLeafType();
+        int bits = bits(cell(xIndex, yIndex));
+        if ((bits & LEAF) == 0) return null;
+        return LEAF_TYPES[(bits >> LEAF_TYPE_SHIFT) & LEAF_TYPE_MASK];
     }
 
     /**
@@ -1104,84 +1778,605 @@ public class PlantController {
      * @param col the column to check.
      */
     public boolean isColumnOffset(int col) {
-        return plantGrid[col][0].isOffset();
+        return isOffset(col, 0);
     }
 
     /**
-     * Node in the plant grid.
+     * Returns whether the given node is vertically offset.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
      */
-    public class PlantNode {
+    private boolean isOffset(int xIndex, int yIndex) {
+        return (bits(cell(xIndex, yIndex)) & OFFSET) != 0;
+    }
+
+    /**
+     * Returns whether the given node has a branch in the given direction.
+     * Unlike {@link #branchExists}, the node must be in bounds.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction direction to check for a branch towards.
+     */
+    private boolean hasBranch(int xIndex,
+                              int yIndex,
+                              BranchDirection direction) {
+        return (bits(cell(xIndex, yIndex)) &
+                (BRANCH << direction.ordinal())) != 0;
+    }
+
+    /**
+     * Returns the branch at the given node and direction, null if none.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction direction of the branch.
+     */
+    public Branch getBranch(int xIndex, int yIndex, BranchDirection direction) {
+        return branchAt(cell(xIndex, yIndex), direction);
+    }
+
+    /**
+     * Returns the leaf at the given node, null if none.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    public Leaf getLeaf(int xIndex, int yIndex) {
+        return leafAt(cell(xIndex, yIndex));
+    }
+
+    /**
+     * Makes and returns a branch in the given direction, of the given type,
+     * at the given node.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction branch direction.
+     * @param type      branch type.
+     */
+    private Branch makeBranch(int xIndex,
+                              int yIndex,
+                              BranchDirection direction,
+                              Branch.BranchType type) {
+        FilmStrip strip = type == Branch.BranchType.NORMAL ?
+                getRandomBranchFilmstrip() :
+                null;
+        Branch newBranch = placeBranch(xIndex, yIndex, direction, type, strip);
+        resourceController.decrementGrowBranch();
+        return newBranch;
+    }
+
+    /**
+     * Creates a branch at the given node and records it in the grid, without
+     * spending any resources.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction branch direction.
+     * @param type      branch type.
+     * @param strip     filmstrip of a normal branch.
+     * @return the new branch
+     */
+    private Branch placeBranch(int xIndex,
+                               int yIndex,
+                               BranchDirection direction,
+                               Branch.BranchType type,
+                               FilmStrip strip) {
+        float pi = (float) Math.PI;
+        float x = nodeX(xIndex);
+        float y = nodeY(xIndex, yIndex);
+        float angle = 0;
+        int yIndexOffset = isOffset(xIndex, yIndex) ? 1 : 0;
+        int nextX = xIndex;
+        int nextY = yIndex + 1;
+        switch (direction) {
+            case LEFT:
+                angle = pi / 3;
+                nextX = xIndex - 1;
+                nextY = yIndex + yIndexOffset;
+                break;
+            case RIGHT:
+                angle = -pi / 3;
+                nextX = xIndex + 1;
+                nextY = yIndex + yIndexOffset;
+                break;
+        }
+        Branch newBranch = new Branch(x, y, angle, type, tilemapParams, 1);
+        int c = cell(xIndex, yIndex);
+        chunkAt(c).branches[(c % chunkCells) * DIRECTIONS.length +
+                direction.ordinal()] = newBranch;
+        int bits = bits(c);
+        if ((bits & (BRANCH << direction.ordinal())) == 0)
+            countPlantParts(nextX, nextY, 1);
+        bits |= BRANCH << direction.ordinal();
+        if (type == Branch.BranchType.REINFORCED)
+            bits |= REINFORCED << direction.ordinal();
+        else bits &= ~(REINFORCED << direction.ordinal());
+        setBits(c, bits);
+        switch (type) {
+            case NORMAL:
+                newBranch.setFilmStrip(strip);
+                break;
+            case REINFORCED:
+                newBranch.setTexture(enBranchTextureUp);
+                break;
+        }
+        renderer.add(newBranch);
+        return newBranch;
+    }
+
+    /**
+     * Removes the branch in the given direction from the given node, if any.
+     *
+     * @param xIndex    x-index of the node.
+     * @param yIndex    y-index of the node.
+     * @param direction direction of the branch.
+     */
+    private void unmakeBranch(int xIndex,
+                              int yIndex,
+                              BranchDirection direction) {
+        int c = cell(xIndex, yIndex);
+        Chunk chunk = chunks[c / chunkCells];
+        if (chunk == null) return;
+        int i = (c % chunkCells) * DIRECTIONS.length + direction.ordinal();
+        if (chunk.branches[i] != null) {
+            chunk.branches[i].markRemoved(true);
+            renderer.remove(chunk.branches[i]);
+            chunk.branches[i] = null;
+        }
+        if ((bits(c) & (BRANCH << direction.ordinal())) != 0) {
+            int yIndexOffset = isOffset(xIndex, yIndex) ? 1 : 0;
+            switch (direction) {
+                case LEFT:
+                    countPlantParts(xIndex - 1, yIndex + yIndexOffset, -1);
+                    break;
+                case MIDDLE:
+                    countPlantParts(xIndex, yIndex + 1, -1);
+                    break;
+                case RIGHT:
+                    countPlantParts(xIndex + 1, yIndex + yIndexOffset, -1);
+                    break;
+            }
+        }
+        clearBits(c, (BRANCH | REINFORCED) << direction.ordinal());
+    }
+
+    /**
+     * Makes and returns a leaf of the given type at the given node.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     * @param type   type of leaf.
+     * @param width  width of the leaf, ignored for bouncy leaves.
+     */
+    private Leaf makeLeaf(int xIndex,
+                          int yIndex,
+                          Leaf.leafType type,
+                          float width) {
+        Leaf leaf = placeLeaf(xIndex, yIndex, type, width);
+        resourceController.decrementGrowLeaf();
+        return leaf;
+    }
+
+    /**
+     * Creates a leaf at the given node and records it in the grid, without
+     * spending any resources.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     * @param type   type of leaf.
+     * @param width  width of the leaf, ignored for bouncy leaves.
+     * @return the new leaf
+     */
+    private Leaf placeLeaf(int xIndex,
+                           int yIndex,
+                           Leaf.leafType type,
+                           float width) {
+        if (type == Leaf.leafType.BOUNCY) width = PlantNode.LEAF_WIDTH;
+        Leaf leaf = new Leaf(nodeX(xIndex),
+                             nodeY(xIndex, yIndex),
+                             width,
+                             PlantNode.LEAF_HEIGHT,
+                             type,
+                             tilemapParams,
+                             0.75f,
+                             inputController);
+        leaf.setColliders(leafColliders);
+        switch (type) {
+            case NORMAL:
+                leaf.setFilmStrip(leafTexture);
+                break;
+            case BOUNCY:
+                leaf.setBounceTexture(bounceTexture);
+                leaf.setUpgradeTexture(bouncyLeafTexture);
+                break;
+            case NORMAL1:
+                leaf.setFilmStrip(leafTextureOne);
+                break;
+            case NORMAL2:
+                leaf.setFilmStrip(leafTextureTwo);
+                break;
+        }
+        renderer.add(leaf);
+        int c = cell(xIndex, yIndex);
+        chunkAt(c).leaves[c % chunkCells] = leaf;
+        int bits = bits(c);
+        if ((bits & LEAF) == 0) countPlantParts(xIndex, yIndex, 1);
+        setBits(c,
+                (bits & ~(LEAF_TYPE_MASK << LEAF_TYPE_SHIFT)) | LEAF |
+                        (type.ordinal() << LEAF_TYPE_SHIFT));
+        return leaf;
+    }
+
+    /**
+     * Removes any leaf from the given node.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    private void unmakeLeaf(int xIndex, int yIndex) {
+        int c = cell(xIndex, yIndex);
+        Chunk chunk = chunks[c / chunkCells];
+        if (chunk == null) return;
+        int i = c % chunkCells;
+        if (chunk.leaves[i] != null) {
+            chunk.leaves[i].markRemoved(true);
+            renderer.remove(chunk.leaves[i]);
+            chunk.leaves[i] = null;
+        }
+        if ((chunk.nodes[i] & LEAF) != 0) countPlantParts(xIndex, yIndex, -1);
+        clearBits(c, LEAF | (LEAF_TYPE_MASK << LEAF_TYPE_SHIFT));
+    }
+
+    /**
+     * Writes the plant and the hazards on it to the given stream.
+     * <p>
+     * After a header with the size of the grid, every node with anything on
+     * it is written as the number of cells skipped since the previous one, as
+     * a varint, and its branch, leaf and hazard bits packed into a short. A
+     * leaf adds its width, health and health mark, a hazard its timer and a
+     * bug its zone. The height of the plant is rebuilt on restore, and
+     * destruction still pending is not saved, so a snapshot is best taken
+     * between collapses.
+     *
+     * @param stream the stream to write to; flushed but not closed.
+     * @param hc     the hazard controller holding the fire timers.
+     */
+    public void writeSnapshot(OutputStream stream, HazardController hc) {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                stream));
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            out.writeShort(width);
+            out.writeShort(height);
+            int count = 0;
+            for (Chunk chunk : chunks) {
+                if (chunk == null) continue;
+                for (int i = 0; i < chunkCells; i++) {
+                    if ((chunk.nodes[i] & SNAPSHOT_BITS) != 0) count++;
+                }
+            }
+            writeVarInt(out, count);
+            int last = -1;
+            for (int k = 0; k < chunks.length; k++) {
+                Chunk chunk = chunks[k];
+                if (chunk == null) continue;
+                for (int i = 0; i < chunkCells; i++) {
+                    int bits = chunk.nodes[i] & SNAPSHOT_BITS;
+                    if (bits == 0) continue;
+                    int c = k * chunkCells + i;
+                    writeVarInt(out, c - last - 1);
+                    last = c;
+                    out.writeShort(bits >> 2);
+                    if ((bits & LEAF) != 0) {
+                        Leaf leaf = chunk.leaves[i];
+                        out.writeFloat(leaf.getWidth());
+                        out.writeFloat(leaf.getHealth());
+                        out.writeByte(leaf.getHealthMark());
+                    }
+                    if ((bits & BUG) != 0) {
+                        Bug b = (Bug) chunk.hazards[i];
+                        writeVarInt(out, b.getTimer());
+                        writeVarInt(out, b.getZoneIndex());
+                    } else if ((bits & HAZARD) != 0) {
+                        writeVarInt(out, hc.getFireTimer(c));
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write plant snapshot", e);
+        }
+    }
+
+    /**
+     * Replaces the plant and the hazards on it with a snapshot written by
+     * writeSnapshot. The old branches, leaves and hazards are marked removed
+     * and the new ones are returned, so that they can all be added to the
+     * world in one batch. No resources are spent, and any destruction still
+     * pending is dropped.
+     *
+     * @param stream the stream to read from; not closed.
+     * @param hc     the hazard controller to restore fires and bugs with.
+     * @return the restored branches, leaves and hazards
+     */
+    public PooledList<Model> readSnapshot(InputStream stream,
+                                          HazardController hc) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                stream));
+        PooledList<Model> restored = new PooledList<>();
+        try {
+            if (in.readInt() != SNAPSHOT_MAGIC ||
+                    in.readByte() != SNAPSHOT_VERSION) {
+                throw new GdxRuntimeException("Not a plant snapshot");
+            }
+            if (in.readShort() != width || in.readShort() != height) {
+                throw new GdxRuntimeException(
+                        "Plant snapshot is for another level");
+            }
+            hc.clearNodeHazards();
+            clearPlant();
+            int count = readVarInt(in);
+            int c = -1;
+            for (int n = 0; n < count; n++) {
+                c += readVarInt(in) + 1;
+                if (c >= width * height) {
+                    throw new GdxRuntimeException("Corrupt plant snapshot");
+                }
+                int x = c % width;
+                int y = c / width;
+                int bits = in.readShort() << 2;
+                for (BranchDirection d : DIRECTIONS) {
+                    if ((bits & (BRANCH << d.ordinal())) == 0) continue;
+                    Branch.BranchType type =
+                            (bits & (REINFORCED << d.ordinal())) != 0 ?
+                                    Branch.BranchType.REINFORCED :
+                                    Branch.BranchType.NORMAL;
+                    // Vary the filmstrips by cell instead of drawing from
+                    // the branch stream, so restoring leaves it untouched
+                    restored.add(placeBranch(x,
+                                             y,
+                                             d,
+                                             type,
+                                             getBranchFilmstrip(
+                                                     (c + d.ordinal()) % 3)));
+                }
+                if ((bits & LEAF) != 0) {
+                    Leaf leaf = placeLeaf(x,
+                                          y,
+                                          LEAF_TYPES[(bits >> LEAF_TYPE_SHIFT) &
+                                                  LEAF_TYPE_MASK],
+                                          in.readFloat());
+                    leaf.setHealth(in.readFloat(), in.readByte());
+                    restored.add(leaf);
+                }
+                if ((bits & HAZARD) != 0) {
+                    Model.ModelType type = (bits & BUG) != 0 ?
+                            Model.ModelType.BUG :
+                            Model.ModelType.FIRE;
+                    int timer = readVarInt(in);
+                    int zone = type == Model.ModelType.BUG ?
+                            readVarInt(in) :
+                            0;
+                    Hazard h = hc.restoreHazard(type, x, y, timer, zone);
+                    if (h != null) restored.add(h);
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read plant snapshot", e);
+        }
+        return restored;
+    }
+
+    /**
+     * Removes every branch and leaf from the grid and the world, and drops
+     * any destruction still pending. Hazards must be cleared first.
+     */
+    private void clearPlant() {
+        for (Chunk chunk : chunks) {
+            if (chunk == null) continue;
+            for (Branch b : chunk.branches) {
+                if (b != null) b.markRemoved(true);
+            }
+            for (Leaf l : chunk.leaves) {
+                if (l != null) l.markRemoved(true);
+            }
+        }
+        Arrays.fill(chunks, null);
+        renderer.clear();
+        Arrays.fill(levelCounts, 0);
+        gridVersion++;
+        siteChanges.clear();
+        sitesRebuilt = true;
+        topLevel = -1;
+        attackedLeaves.clear();
+        for (IntArray wave : destructionWaves) {
+            wave.clear();
+        }
+        currentWave = 0;
+        waveCursor = 0;
+        waveDestroyed = false;
+        pendingDestructions = 0;
+        plantCoyoteTimeRemaining = 0;
+    }
+
+    /**
+     * Writes an int seven bits at a time, low bits first, with the high bit
+     * of each byte set if more follow.
+     *
+     * @param out   the output to write to.
+     * @param value the value to write.
+     */
+    private static void writeVarInt(DataOutput out, int value)
+            throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by writeVarInt.
+     *
+     * @param in the input to read from.
+     * @return the value read
+     */
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new GdxRuntimeException("Corrupt plant snapshot");
+    }
+
+    /**
+     * Returns a view of the given node. The view reads and writes the grid
+     * directly, so it stays current but should not outlive a reset.
+     *
+     * @param xIndex x-index of the node.
+     * @param yIndex y-index of the node.
+     */
+    public PlantNode getNode(int xIndex, int yIndex) {
+        return new PlantNode(xIndex, yIndex);
+    }
+
+    /**
+     * The answer to a placement query at a node, kept until the grid changes
+     * or a query aims elsewhere.
+     */
+    private static class Placement {
 
         /**
-         * Leaf height.
+         * Cell of the queried node, -1 if out of bounds.
          */
-        public static final float LEAF_HEIGHT = 0.1f;
+        int cell = -1;
+        /**
+         * Direction the query aimed at, null for leaves.
+         */
+        BranchDirection aim;
+        /**
+         * Grid version the answer was computed at.
+         */
+        int version = -1;
+        /**
+         * Direction a branch would grow in, null if none.
+         */
+        BranchDirection direction;
         /**
-         * Leaf width.
+         * Whether a branch or leaf can be placed at the node.
          */
-        public final float leafWidth = 1.5f;
+        boolean buildable;
+        boolean enabled;
+        boolean hasLeaf;
         /**
-         * x-coordinate of this node.
+         * Whether the leaf at the node can be upgraded to a bouncy leaf.
          */
-        private final float x;
+        boolean upgradable;
+
+        boolean matches(int cell, BranchDirection aim, int version) {
+            return this.cell == cell && this.aim == aim &&
+                    this.version == version;
+        }
+
+        void reset(int cell, BranchDirection aim, int version) {
+            this.cell = cell;
+            this.aim = aim;
+            this.version = version;
+            direction = null;
+            buildable = false;
+            enabled = false;
+            hasLeaf = false;
+            upgradable = false;
+        }
+
+    }
+
+    /**
+     * A band of CHUNK_ROWS full rows of the plant grid, with one int of node
+     * bits per node and the objects backing them, all indexed by cell within
+     * the chunk.
+     */
+    private static class Chunk {
+
         /**
-         * y-coordinate of this node.
+         * The node bits of every node.
          */
-        private final float y;
+        final int[] nodes;
         /**
-         * Tilemap parameters.
+         * The branches of every node, three per node in BranchDirection
+         * order.
          */
-        private final Tilemap.TilemapParams tilemapParams;
+        final Branch[] branches;
         /**
-         * Whether this node is vertically offset.
+         * The leaf of every node, null if none.
          */
-        private final boolean isOffset;
+        final Leaf[] leaves;
         /**
-         * Whether this node is enabled.
+         * The hazard of every node, null if none.
          */
-        private final boolean enabled;
+        final Hazard[] hazards;
         /**
-         * The branch facing left at this node, null if none.
+         * The wave each doomed node is destroyed in.
          */
-        private Branch left;
+        final int[] doomedWaves;
         /**
-         * The branch facing upward at this node, null if none.
+         * Number of nodes with any CONTENTS bits set.
          */
-        private Branch middle;
+        int occupied;
+
         /**
-         * The branch facing right at this node, null if none.
+         * Allocates an empty chunk.
+         *
+         * @param cells number of cells in the chunk.
          */
-        private Branch right;
+        Chunk(int cells) {
+            nodes = new int[cells];
+            branches = new Branch[cells * DIRECTIONS.length];
+            leaves = new Leaf[cells];
+            hazards = new Hazard[cells];
+            doomedWaves = new int[cells];
+        }
+
+    }
+
+    /**
+     * Node in the plant grid. This is only a view of one cell of the grid
+     * chunks; it holds no state of its own.
+     */
+    public class PlantNode {
+
         /**
-         * The leaf at this node, null if none.
+         * Leaf height.
          */
-        private Leaf leaf;
+        public static final float LEAF_HEIGHT = 0.1f;
         /**
-         * The hazard at this node, null if none.
+         * Width of bouncy leaves.
          */
-        private Hazard hazard;
+        public static final float LEAF_WIDTH = 1.5f;
+        /**
+         * x-index of this node.
+         */
+        private final int xIndex;
+        /**
+         * y-index of this node.
+         */
+        private final int yIndex;
 
         /**
-         * Initializes a new PlantNode object with its coordinates, whether
-         * it is vertically offset, whether it is enabled, and a record of
-         * tilemap parameters.
+         * Initializes a view of the node at the given indices.
          *
-         * @param x     x-coordinate of the node.
-         * @param y     y-coordinate of the node.
-         * @param isOff whether this node is vertically offset.
-         * @param on    whether this node is enabled.
-         * @param tmp   record of tilemap parameters.
+         * @param xIndex x-index of the node.
+         * @param yIndex y-index of the node.
          */
-        public PlantNode(float x,
-                         float y,
-                         boolean isOff,
-                         boolean on,
-                         Tilemap.TilemapParams tmp) {
-            this.x = x;
-            this.y = y;
-            isOffset = isOff;
-            enabled = on;
-            tilemapParams = tmp;
+        public PlantNode(int xIndex, int yIndex) {
+            this.xIndex = xIndex;
+            this.yIndex = yIndex;
         }
 
         /**
@@ -1193,61 +2388,24 @@ public class PlantController {
          */
         public Branch makeBranch(BranchDirection direction,
                                  Branch.BranchType type) {
-            float pi = (float) Math.PI;
-            Branch newBranch = null;
-            IntVector2 nodeIndex = coordToIndex(x, y);
-            int xIndex = nodeIndex.x;
-            int yIndex = nodeIndex.y;
-            int yIndexOffset = isOffset() ? 1 : 0;
-            float maxY;
-            switch (direction) {
-                case LEFT:
-                    left = new Branch(x, y, pi / 3, type, tilemapParams, 1);
-                    newBranch = left;
-                    maxY = plantGrid[xIndex - 1][yIndex + yIndexOffset].y;
-                    if (maxY > getMaxPlantHeight())
-                        maxPlantIndex.set(xIndex - 1, yIndex + yIndexOffset);
-                    break;
-                case MIDDLE:
-                    middle = new Branch(x, y, 0, type, tilemapParams, 1);
-                    newBranch = middle;
-                    maxY = plantGrid[xIndex][yIndex + 1].y;
-                    if (maxY > getMaxPlantHeight())
-                        maxPlantIndex.set(xIndex, yIndex + 1);
-                    break;
-                case RIGHT:
-                    right = new Branch(x, y, -pi / 3, type, tilemapParams, 1);
-                    newBranch = right;
-                    maxY = plantGrid[xIndex + 1][yIndex + yIndexOffset].y;
-                    if (maxY > getMaxPlantHeight())
-                        maxPlantIndex.set(xIndex + 1, yIndex + yIndexOffset);
-                    break;
-            }
-            switch (type) {
-                case NORMAL:
-                    newBranch.setFilmStrip(getRandomBranchFilmstrip());
-                    break;
-                case REINFORCED:
-                    newBranch.setTexture(enBranchTextureUp);
-                    break;
-            }
-            resourceController.decrementGrowBranch();
-            return newBranch;
-
+            return PlantController.this.makeBranch(xIndex,
+                                                   yIndex,
+                                                   direction,
+                                                   type);
         }
 
         /**
          * @return whether this node is vertically offset.
          */
         public boolean isOffset() {
-            return isOffset;
+            return PlantController.this.isOffset(xIndex, yIndex);
         }
 
         /**
          * @return whether this node is enabled.
          */
         public boolean isEnabled() {
-            return enabled;
+            return isNodeEnabled(xIndex, yIndex);
         }
 
         /**
@@ -1256,40 +2414,14 @@ public class PlantController {
          * @param type type of leaf.
          */
         public Leaf makeLeaf(Leaf.leafType type, float width) {
-            if (type == Leaf.leafType.BOUNCY) width = leafWidth;
-            leaf = new Leaf(x,
-                            y,
-                            width,
-                            LEAF_HEIGHT,
-                            type,
-                            tilemapParams,
-                            0.75f);
-            switch (type) {
-                case NORMAL:
-                    leaf.setFilmStrip(leafTexture);
-                    break;
-                case BOUNCY:
-                    leaf.setBounceTexture(bounceTexture);
-                    leaf.setUpgradeTexture(bouncyLeafTexture);
-                    break;
-                case NORMAL1:
-                    leaf.setFilmStrip(leafTextureOne);
-                    break;
-                case NORMAL2:
-                    leaf.setFilmStrip(leafTextureTwo);
-                    break;
-            }
-            resourceController.decrementGrowLeaf();
-            return leaf;
+            return PlantController.this.makeLeaf(xIndex, yIndex, type, width);
         }
 
         /**
          * @return whether this node has a branch.
          */
         public boolean hasBranch() {
-            return hasBranchInDirection(BranchDirection.LEFT) ||
-                    hasBranchInDirection(BranchDirection.RIGHT) ||
-                    hasBranchInDirection(BranchDirection.MIDDLE);
+            return (bits(cell(xIndex, yIndex)) & BRANCHES) != 0;
         }
 
         /**
@@ -1298,16 +2430,7 @@ public class PlantController {
          * @param direction direction to check for a branch towards.
          */
         public boolean hasBranchInDirection(BranchDirection direction) {
-            switch (direction) {
-                case MIDDLE:
-                    return middle != null && !middle.isRemoved();
-                case LEFT:
-                    return left != null && !left.isRemoved();
-                case RIGHT:
-                    return right != null && !right.isRemoved();
-                default:
-                    return false;
-            }
+            return PlantController.this.hasBranch(xIndex, yIndex, direction);
         }
 
         /**
@@ -1316,90 +2439,53 @@ public class PlantController {
          * @param direction direction to check for.
          */
         public Branch getBranch(BranchDirection direction) {
-            switch (direction) {
-                case MIDDLE:
-                    return middle;
-                case LEFT:
-                    return left;
-                case RIGHT:
-                    return right;
-                default:
-                    return null;
-            }
+            return PlantController.this.getBranch(xIndex, yIndex, direction);
         }
 
         /**
          * @return the leaf of this node, null if no leaf.
          */
         public Leaf getLeaf() {
-            return leaf;
+            return PlantController.this.getLeaf(xIndex, yIndex);
         }
 
         /**
          * @return the x-coordinate of this node's position.
          */
         public float getX() {
-            return x;
+            return nodeX(xIndex);
         }
 
         /**
          * @return the y-coordinate of this node's position.
          */
         public float getY() {
-            return y;
+            return nodeY(xIndex, yIndex);
         }
 
         /**
          * Resets this node, removing any branches, leaves or hazards.
          */
         public void reset() {
-            if (middle != null) {
-                unmakeBranch(BranchDirection.MIDDLE);
-            }
-            if (left != null) {
-                unmakeBranch(BranchDirection.LEFT);
-            }
-            if (right != null) {
-                unmakeBranch(BranchDirection.RIGHT);
+            for (BranchDirection d : DIRECTIONS) {
+                unmakeBranch(d);
             }
             unmakeLeaf();
             removeHazard();
         }
 
         /**
-         * Removes any branches from this node.
+         * Removes the branch in the given direction from this node.
          */
         public void unmakeBranch(BranchDirection direction) {
-            switch (direction) {
-                case MIDDLE:
-                    if (middle != null) {
-                        middle.markRemoved(true);
-                        middle = null;
-                    }
-                    break;
-                case RIGHT:
-                    if (right != null) {
-                        right.markRemoved(true);
-                        right = null;
-                    }
-                    break;
-                case LEFT:
-                    if (left != null) {
-                        left.markRemoved(true);
-                        left = null;
-                    }
-                    break;
-            }
+            PlantController.this.unmakeBranch(xIndex, yIndex, direction);
         }
 
         /**
          * Removes any leaf from this node.
          */
         public void unmakeLeaf() {
-            if (leaf != null) {
-                leaf.markRemoved(true);
-                leaf = null;
-            }
+            PlantController.this.unmakeLeaf(xIndex, yIndex);
         }
 
         /**
@@ -1407,17 +2493,14 @@ public class PlantController {
          * world.
          */
         public void removeHazard() {
-            hazard = null;
-            if (leaf != null) {
-                leaf.setBeingEaten(false);
-            }
+            PlantController.this.removeHazard(xIndex, yIndex);
         }
 
         /**
          * @return this node's hazard, null if none.
          */
         public Hazard getHazard() {
-            return hazard;
+            return PlantController.this.getHazard(xIndex, yIndex);
         }
 
         /**
@@ -1426,34 +2509,28 @@ public class PlantController {
          * @param h hazard.
          */
         public void setHazard(Hazard h) {
-            hazard = h;
-            if (leaf != null && h.getType() == Model.ModelType.BUG &&
-                    leaf.getLeafType() != Leaf.leafType.BOUNCY) {
-                leaf.setBeingEaten(true);
-            }
+            PlantController.this.setHazard(xIndex, yIndex, h);
         }
 
         /**
          * @return whether this node has a hazard.
          */
         public boolean hasHazard() {
-            return hazard != null;
+            return PlantController.this.hasHazard(xIndex, yIndex);
         }
 
         /**
          * @return whether this node is empty.
          */
         public boolean isEmpty() {
-            return !(hasBranchInDirection(BranchDirection.LEFT) ||
-                    hasBranchInDirection(BranchDirection.RIGHT) ||
-                    hasBranchInDirection(BranchDirection.MIDDLE) || hasLeaf());
+            return nodeIsEmpty(xIndex, yIndex);
         }
 
         /**
          * @return whether this node has a leaf.
          */
         public boolean hasLeaf() {
-            return leaf != null;
+            return PlantController.this.hasLeaf(xIndex, yIndex);
         }
 
         /**
@@ -1462,22 +2539,9 @@ public class PlantController {
          * @param direction the direction of the branch.
          */
         public Branch.BranchType getBranchType(BranchDirection direction) {
-            switch (direction) {
-                case LEFT:
-                    if (hasBranchInDirection(BranchDirection.LEFT))
-                        return left.getBranchType();
-                    else return null;
-                case RIGHT:
-                    if (hasBranchInDirection(BranchDirection.RIGHT))
-                        return right.getBranchType();
-                    else return null;
-                case MIDDLE:
-                    if (hasBranchInDirection(BranchDirection.MIDDLE))
-                        return middle.getBranchType();
-                    else return null;
-            }
-            //There is no branch at this node
-            return null;
+            return PlantController.this.getBranchType(xIndex,
+                                                      yIndex,
+                                                      direction);
         }
 
         /**
@@ -1489,34 +2553,17 @@ public class PlantController {
          */
         public void setBranchType(BranchDirection direction,
                                   Branch.BranchType btype) {
-            switch (direction) {
-                case LEFT:
-                    if (hasBranchInDirection(BranchDirection.LEFT)) {
-                        left.setBranchType(btype);
-                        left.setFilmStrip(getRandomBranchFilmstrip());
-                    }
-                    break;
-                case RIGHT:
-                    if (hasBranchInDirection(BranchDirection.RIGHT)) {
-                        right.setBranchType(btype);
-                        right.setFilmStrip(getRandomBranchFilmstrip());
-                    }
-                    break;
-                case MIDDLE:
-                    if (hasBranchInDirection(BranchDirection.MIDDLE)) {
-                        middle.setBranchType(btype);
-                        middle.setFilmStrip(getRandomBranchFilmstrip());
-                    }
-                    break;
-            }
+            PlantController.this.setBranchType(xIndex,
+                                               yIndex,
+                                               direction,
+                                               btype);
         }
 
         /**
          * @return the type of leaf at this node, null if no leaf.
          */
         public Leaf.leafType getLeafType() {
-            if (hasLeaf()) return leaf.getLeafType();
-            else return null;
+            return PlantController.this.getLeafType(xIndex, yIndex);
         }
 
     }
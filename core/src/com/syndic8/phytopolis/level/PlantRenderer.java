@@ -0,0 +1,300 @@
+package com.syndic8.phytopolis.level;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.syndic8.phytopolis.GameCanvas;
+import com.syndic8.phytopolis.level.models.Branch;
+import com.syndic8.phytopolis.level.models.Leaf;
+import com.syndic8.phytopolis.level.models.Model;
+import com.syndic8.phytopolis.util.FilmStrip;
+
+/**
+ * Draws every branch and leaf of the plant from persistent vertex arrays.
+ * <p>
+ * Each plant part owns one quad in the page of its texture, and a page is
+ * drawn with a single batch call. The corners of a quad are computed once,
+ * when the part is added; after that only its texture coordinates are
+ * patched, and only when its animation frame or filmstrip changes. Removing
+ * a part moves the last quad of its page into the hole, so pages stay
+ * packed.
+ */
+public class PlantRenderer {
+
+    /**
+     * Floats per vertex: x, y, packed color, u and v.
+     */
+    private static final int VERTEX_SIZE = 5;
+    /**
+     * Floats per quad.
+     */
+    private static final int QUAD_SIZE = 4 * VERTEX_SIZE;
+    /**
+     * Every part, in no particular order.
+     */
+    private final Array<Quad> quads = new Array<>(false, 64);
+    /**
+     * The quad of every part.
+     */
+    private final ObjectMap<Model, Quad> quadsByPart = new ObjectMap<>();
+    /**
+     * One page per texture, ordered by the z-index of its parts.
+     */
+    private final Array<Page> pages = new Array<>();
+
+    /**
+     * Adds a part to the plant mesh.
+     *
+     * @param branch the branch to draw.
+     */
+    public void add(Branch branch) {
+        Quad q = new Quad(branch);
+        branch.computeQuad(q.corners);
+        add(q);
+    }
+
+    /**
+     * Adds a part to the plant mesh.
+     *
+     * @param leaf the leaf to draw.
+     */
+    public void add(Leaf leaf) {
+        Quad q = new Quad(leaf);
+        leaf.computeQuad(q.corners);
+        add(q);
+    }
+
+    /**
+     * Tracks the given quad. It gets its page on the next draw, as leaves
+     * only pick their filmstrip on their first update.
+     *
+     * @param q the quad.
+     */
+    private void add(Quad q) {
+        q.index = quads.size;
+        quads.add(q);
+        quadsByPart.put(q.part, q);
+    }
+
+    /**
+     * Removes a part from the plant mesh, if present.
+     *
+     * @param part the branch or leaf.
+     */
+    public void remove(Model part) {
+        Quad q = quadsByPart.remove(part);
+        if (q == null) return;
+        unplace(q);
+        quads.removeIndex(q.index);
+        if (q.index < quads.size) quads.get(q.index).index = q.index;
+    }
+
+    /**
+     * Removes every part.
+     */
+    public void clear() {
+        quads.clear();
+        quadsByPart.clear();
+        for (Page page : pages) {
+            page.count = 0;
+        }
+    }
+
+    /**
+     * Brings the quads of every changed part up to date and draws every
+     * page.
+     *
+     * @param canvas the game canvas.
+     */
+    public void draw(GameCanvas canvas) {
+        for (int i = 0; i < quads.size; i++) {
+            refresh(quads.get(i));
+        }
+        for (Page page : pages) {
+            if (page.count == 0) continue;
+            canvas.draw(page.texture,
+                        page.vertices,
+                        0,
+                        page.count * QUAD_SIZE);
+        }
+    }
+
+    /**
+     * Moves the quad of a part to the page of its current filmstrip and
+     * patches its texture coordinates if its frame changed.
+     *
+     * @param q the quad.
+     */
+    private void refresh(Quad q) {
+        Model part = q.part;
+        FilmStrip strip = part.getFilmStrip();
+        if (strip != q.strip) {
+            unplace(q);
+            q.strip = strip;
+            q.frame = -1;
+            if (strip != null) place(q, strip.getTexture(), part.getZIndex());
+        }
+        if (strip == null) return;
+        int frame = part.getType() == Model.ModelType.LEAF ?
+                ((Leaf) part).getDrawFrame() :
+                ((Branch) part).getDrawFrame();
+        // Filmstrips ignore frames out of range, so keep the last good one
+        if (frame < 0 || frame >= strip.getSize()) {
+            if (q.frame >= 0) return;
+            frame = strip.getFrame();
+        }
+        if (frame == q.frame) return;
+        q.frame = frame;
+        strip.setFrame(frame);
+        float[] v = q.page.vertices;
+        int o = q.slot * QUAD_SIZE;
+        float u = strip.getU();
+        float u2 = strip.getU2();
+        float top = strip.getV();
+        float bottom = strip.getV2();
+        v[o + 3] = u;
+        v[o + 4] = bottom;
+        v[o + 8] = u;
+        v[o + 9] = top;
+        v[o + 13] = u2;
+        v[o + 14] = top;
+        v[o + 18] = u2;
+        v[o + 19] = bottom;
+    }
+
+    /**
+     * Appends the quad to the page of the given texture, writing its
+     * corners.
+     *
+     * @param q       the quad.
+     * @param texture the texture of the part.
+     * @param layer   the z-index of the part.
+     */
+    private void place(Quad q, Texture texture, int layer) {
+        Page page = pageFor(texture, layer);
+        if (page.count == page.quads.length) page.grow();
+        q.page = page;
+        q.slot = page.count++;
+        page.quads[q.slot] = q;
+        float[] v = page.vertices;
+        int o = q.slot * QUAD_SIZE;
+        for (int k = 0; k < 4; k++) {
+            v[o] = q.corners[2 * k];
+            v[o + 1] = q.corners[2 * k + 1];
+            v[o + 2] = Color.WHITE_FLOAT_BITS;
+            o += VERTEX_SIZE;
+        }
+    }
+
+    /**
+     * Takes the quad out of its page, if any, filling the hole with the
+     * last quad of the page.
+     *
+     * @param q the quad.
+     */
+    private void unplace(Quad q) {
+        Page page = q.page;
+        if (page == null) return;
+        int last = --page.count;
+        if (q.slot != last) {
+            Quad moved = page.quads[last];
+            System.arraycopy(page.vertices,
+                             last * QUAD_SIZE,
+                             page.vertices,
+                             q.slot * QUAD_SIZE,
+                             QUAD_SIZE);
+            page.quads[q.slot] = moved;
+            moved.slot = q.slot;
+        }
+        page.quads[last] = null;
+        q.page = null;
+        q.strip = null;
+    }
+
+    /**
+     * Returns the page of the given texture, creating it if needed.
+     *
+     * @param texture the texture.
+     * @param layer   the z-index of the parts using it.
+     */
+    private Page pageFor(Texture texture, int layer) {
+        int i = 0;
+        for (; i < pages.size; i++) {
+            Page page = pages.get(i);
+            if (page.texture == texture) return page;
+            if (page.layer > layer) break;
+        }
+        Page page = new Page(texture, layer);
+        pages.insert(i, page);
+        return page;
+    }
+
+    /**
+     * The vertices of every part drawn with one texture.
+     */
+    private static class Page {
+
+        final Texture texture;
+        final int layer;
+        float[] vertices = new float[16 * QUAD_SIZE];
+        /**
+         * The quad in every slot.
+         */
+        Quad[] quads = new Quad[16];
+        int count;
+
+        Page(Texture texture, int layer) {
+            this.texture = texture;
+            this.layer = layer;
+        }
+
+        /**
+         * Doubles the capacity of this page.
+         */
+        void grow() {
+            float[] v = new float[vertices.length * 2];
+            System.arraycopy(vertices, 0, v, 0, count * QUAD_SIZE);
+            vertices = v;
+            Quad[] q = new Quad[quads.length * 2];
+            System.arraycopy(quads, 0, q, 0, count);
+            quads = q;
+        }
+
+    }
+
+    /**
+     * The quad of a single branch or leaf.
+     */
+    private static class Quad {
+
+        final Model part;
+        /**
+         * World corners as x, y pairs, in batch order.
+         */
+        final float[] corners = new float[8];
+        /**
+         * Index in the list of quads.
+         */
+        int index;
+        /**
+         * The page holding this quad, null if none yet.
+         */
+        Page page;
+        int slot;
+        /**
+         * The filmstrip the texture coordinates were taken from.
+         */
+        FilmStrip strip;
+        /**
+         * The frame the texture coordinates show, -1 if none yet.
+         */
+        int frame = -1;
+
+        Quad(Model part) {
+            this.part = part;
+        }
+
+    }
+
+}
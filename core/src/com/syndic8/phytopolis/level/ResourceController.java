@@ -29,6 +29,10 @@ public class ResourceController {
      * Current amount of water stored
      */
     private int currWater;
+    /**
+     * Total amount of water spent since the last reset
+     */
+    private int waterUsed;
     private boolean notEnough = false;
 
     public ResourceController() {
@@ -54,6 +58,7 @@ public class ResourceController {
     public void decrementGrowLeaf() {
         if (canGrowLeaf()) {
             currWater -= LEAF_GROW_AMT;
+            waterUsed += LEAF_GROW_AMT;
         }
     }
 
@@ -64,6 +69,7 @@ public class ResourceController {
     public void decrementGrowBranch() {
         if (canGrowBranch()) {
             currWater -= BRANCH_GROW_AMT;
+            waterUsed += BRANCH_GROW_AMT;
         }
     }
 
@@ -74,6 +80,7 @@ public class ResourceController {
     public void decrementExtinguish() {
         if (canExtinguish()) {
             currWater -= FIRE_AMT;
+            waterUsed += FIRE_AMT;
         }
     }
 
@@ -84,6 +91,7 @@ public class ResourceController {
     public void decrementUpgrade() {
         if (canUpgrade()) {
             currWater -= UPGRADE_AMT - LEAF_GROW_AMT;
+            waterUsed += UPGRADE_AMT - LEAF_GROW_AMT;
         }
     }
 
@@ -99,8 +107,13 @@ public class ResourceController {
         return currWater >= UPGRADE_AMT;
     }
 
+    public int getWaterUsed() {
+        return waterUsed;
+    }
+
     public void reset() {
         currWater = MAX_WATER;
+        waterUsed = 0;
     }
 
 }
@@ -1,21 +1,33 @@
 package com.syndic8.phytopolis.level;
 
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.FloatArray;
 import com.syndic8.phytopolis.assets.AssetDirectory;
 import com.syndic8.phytopolis.level.models.Sun;
 import com.syndic8.phytopolis.util.RandomController;
 import com.syndic8.phytopolis.util.Tilemap;
-
-import java.util.List;
+import com.syndic8.phytopolis.util.TimingWheel;
 
 public class SunController {
 
     private final float delayMin;
     private final float delayMax;
+    private final RandomController random;
+    /**
+     * The timing wheel the spawn timer runs on.
+     */
+    private final TimingWheel scheduler;
+    /**
+     * Marks the next sun as due.
+     */
+    private final TimingWheel.Task spawnTask;
     private float yGeneration;
-    private List<Float> plantXPositions;
+    private FloatArray plantXPositions;
     private float currentDelay;
-    private float timer;
+    /**
+     * Whether the next sun is due.
+     */
+    private boolean due;
     private float xGeneration;
     private Texture sunCircle;
     private Texture sunRay;
@@ -24,25 +36,29 @@ public class SunController {
     public SunController(float dMin,
                          float dMax,
                          float yGen,
-                         List<Float> plantXs) {
+                         FloatArray plantXs,
+                         RandomController random,
+                         TimingWheel scheduler) {
+        this.random = random;
+        this.scheduler = scheduler;
+        spawnTask = new TimingWheel.Task(() -> due = true);
         delayMin = dMin;
         delayMax = dMax;
-        timer = 0;
         yGeneration = yGen;
         plantXPositions = plantXs;
         generateDelay();
     }
 
     private void generateDelay() {
-        timer = 0;
-        currentDelay = RandomController.rollFloat(delayMin, delayMax);
-        xGeneration = plantXPositions.get(RandomController.rollInt(0,
-                                                                   plantXPositions.size() -
-                                                                           1));
+        due = false;
+        currentDelay = random.rollFloat(delayMin, delayMax);
+        scheduler.schedule(spawnTask, currentDelay);
+        xGeneration = plantXPositions.get(random.rollInt(0,
+                                                         plantXPositions.size -
+                                                                 1));
     }
 
-    public void reset(float yGen, List<Float> plantXs) {
-        timer = 0;
+    public void reset(float yGen, FloatArray plantXs) {
         yGeneration = yGen;
         plantXPositions = plantXs;
         generateDelay();
@@ -54,10 +70,15 @@ public class SunController {
         sunRay = directory.getEntry("gameplay:sun_ray", Texture.class);
     }
 
-    public Sun spawnSuns(float delta, Tilemap tm) {
+    /**
+     * Returns a new sun if one is due, to be added to the world.
+     *
+     * @param tm the tilemap of the level.
+     * @return the sun, null if none is due
+     */
+    public Sun spawnSuns(Tilemap tm) {
         if (tm.getLevelNumber() != 1) {
-            timer += delta;
-            if (timer >= currentDelay) {
+            if (due) {
                 generateDelay();
                 return new Sun(xGeneration,
                                yGeneration,
@@ -15,7 +15,6 @@ import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.InputController;
 import com.syndic8.phytopolis.assets.AssetDirectory;
 import com.syndic8.phytopolis.level.models.Player;
-import com.syndic8.phytopolis.math.IntVector2;
 import com.syndic8.phytopolis.util.FilmStrip;
 import com.syndic8.phytopolis.util.SharedAssetContainer;
 import com.syndic8.phytopolis.util.Tilemap;
@@ -55,12 +54,12 @@ public class UIController {
     /**
      * Initializes a UIController.
      */
-    public UIController(GameCanvas c, Tilemap tilemap) {
+    public UIController(GameCanvas c, Tilemap tilemap, InputController ic) {
         canvas = c;
         timer = new Timer(tilemap.getTime());
         timer.start();
         projMousePosCache = new Vector2();
-        ic = InputController.getInstance();
+        this.ic = ic;
         stage = new Stage(c.getTextViewport());
         BitmapFont font = SharedAssetContainer.getInstance().getUIFont();
         TextButton.TextButtonStyle labelStyle = new TextButton.TextButtonStyle();
@@ -94,6 +93,26 @@ public class UIController {
         initialize();
     }
 
+    /**
+     * Initializes a UIController for a headless world.
+     * <p>
+     * Only the level timer is kept; there is no stage, font or cursor, so
+     * this controller must never be drawn.
+     */
+    public UIController(Tilemap tilemap, InputController ic) {
+        canvas = null;
+        timer = new Timer(tilemap.getTime());
+        timer.start();
+        projMousePosCache = new Vector2();
+        this.ic = ic;
+        stage = null;
+        label = null;
+        progressBar = null;
+        yellowColor = new Color(224f, 231f, 34f, 0f);
+        waterSize = 1.0f;
+        labelSize = 1.0f;
+    }
+
     private void initialize() {
     }
 
@@ -190,6 +209,10 @@ public class UIController {
                        float timerDeduction,
                        float fireProgress,
                        Tilemap tm) {
+        if (stage == null) {
+            timer.updateTime(dt + timerDeduction);
+            return;
+        }
         updateCursor(plantController,
                      hazardController,
                      resourceController,
@@ -232,7 +255,7 @@ public class UIController {
             labelSize -= 0.01f;
         }
         progressBar.setValue(fireProgress);
-        progressBar.setVisible(hazardController.findValidFireLocs());
+        progressBar.setVisible(hazardController.hasValidFireLocs());
         timer.updateTime(dt + timerDeduction); // 1 SEC PER LEAF BITE
         label.setText(timer.toString());
     }
@@ -254,10 +277,8 @@ public class UIController {
         if (!Float.isNaN(unprojMousePos.x)) { // make sure we aren't tabbed out
 
             float distance = unprojMousePos.dst(avatarX, avatarY);
-            IntVector2 node = pc.coordToIndex(unprojMousePos.x,
-                                              unprojMousePos.y + 0.5f *
-                                                      tm.getTileHeight());
-            boolean enabled = pc.isNodeEnabled(node.x, node.y);
+            float leafY = unprojMousePos.y + 0.5f * tm.getTileHeight();
+            boolean enabled = pc.isNodeEnabledAt(unprojMousePos.x, leafY);
             if (distance > tm.getTileHeight() * RANGE_SCALE || !enabled) {
                 Gdx.graphics.setCursor(normalCursor);
             } else {
@@ -272,7 +293,7 @@ public class UIController {
                     else Gdx.graphics.setCursor(noWaterCursor);
                 } else if ((ic.isGrowLeafModSet() || (ic.isGrowBranchModSet() &&
                         !ic.isGrowBranchModDown())) && ic.isGrowLeafModDown()) {
-                    if (pc.hasLeaf(unprojMousePos)) {
+                    if (pc.hasLeafAt(unprojMousePos.x, leafY)) {
                         if (rc.canUpgrade()) Gdx.graphics.setCursor(leafCursor);
                         else Gdx.graphics.setCursor(noWaterCursor);
                     } else {
@@ -96,6 +96,24 @@ public abstract class BoxObject extends GameObject {
         resize(width, height);
     }
 
+    /**
+     * Returns the box width
+     *
+     * @return the box width
+     */
+    public float getWidth() {
+        return dimension.x;
+    }
+
+    /**
+     * Returns the box height
+     *
+     * @return the box height
+     */
+    public float getHeight() {
+        return dimension.y;
+    }
+
     /**
      * Create new fixtures for this body, defining the shape
      * <p>
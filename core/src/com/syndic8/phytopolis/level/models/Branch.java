@@ -64,6 +64,7 @@ public class Branch extends Model {
      * @param dt Number of seconds since last animation frame
      */
     public void update(float dt) {
+        if (getFilmStrip() == null) return;
         if (animFrame < getFilmStrip().getSize() - 1) {
             animFrame += ANIMATION_SPEED * dt;
         } else if (animFrame >= getFilmStrip().getSize()) {
@@ -83,7 +84,7 @@ public class Branch extends Model {
         float sclY = height / texture.getRegionHeight();
         float x = texture.getRegionWidth() / 2.0f;
         float y = texture.getRegionHeight() / 2.0f;
-        getFilmStrip().setFrame((int) animFrame);
+        getFilmStrip().setFrame(getDrawFrame());
         canvas.draw(texture,
                     Color.WHITE,
                     x,
@@ -95,6 +96,37 @@ public class Branch extends Model {
                     sclY);
     }
 
+    /**
+     * @return the filmstrip frame this branch shows.
+     */
+    public int getDrawFrame() {
+        return (int) animFrame;
+    }
+
+    /**
+     * Writes the world corners of this branch's sprite as x, y pairs, in
+     * sprite batch order: bottom left, top left, top right and bottom right
+     * of the unrotated texture. The sprite hangs from its bottom middle.
+     *
+     * @param quad the array of eight floats to write to.
+     */
+    public void computeQuad(float[] quad) {
+        float halfWidth = tilemapParams.tileWidth() * textureSclInTiles / 2;
+        float height = tilemapParams.tileHeight() * textureSclInTiles;
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        float x = getX();
+        float y = getY();
+        quad[0] = x - halfWidth * cos;
+        quad[1] = y - halfWidth * sin;
+        quad[2] = x - halfWidth * cos - height * sin;
+        quad[3] = y - halfWidth * sin + height * cos;
+        quad[4] = x + halfWidth * cos - height * sin;
+        quad[5] = y + halfWidth * sin + height * cos;
+        quad[6] = x + halfWidth * cos;
+        quad[7] = y + halfWidth * sin;
+    }
+
     /**
      * returns the branch type of this branch
      *
@@ -28,6 +28,14 @@ public class Bug extends Hazard {
         doneAnim = false;
     }
 
+    @Override
+    public void reuse(Vector2 pos, int x, int y, int timer) {
+        super.reuse(pos.set(pos.x, pos.y + 0.4f), x, y, timer);
+        despawning = false;
+        doneAnim = false;
+        zoneIndex = 0;
+    }
+
     public int getZoneIndex() {
         return zoneIndex;
     }
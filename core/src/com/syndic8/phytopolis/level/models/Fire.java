@@ -40,6 +40,13 @@ public class Fire extends Hazard {
         return ModelType.FIRE;
     }
 
+    @Override
+    public void reuse(Vector2 pos, int x, int y, int timer) {
+        super.reuse(pos, x, y, timer);
+        size = .4f;
+        elapsedTime = 0.0f;
+    }
+
     public void update(float dt) {
         if (animFrame < NUM_FRAMES) {
             animFrame += dt * ANIMATION_SPEED;
@@ -55,6 +62,20 @@ public class Fire extends Hazard {
         size = Math.min(size + sizeIncrement, 1f);
     }
 
+    /**
+     * Sets how long this fire has been burning, as if it had been updated
+     * every step since it was lit.
+     *
+     * @param age how long the fire has been burning, in seconds.
+     * @param dt  the length of a step.
+     */
+    public void setAge(float age, float dt) {
+        animFrame = (age * ANIMATION_SPEED) % NUM_FRAMES;
+        elapsedTime = age;
+        // The size grows by the elapsed time at every step
+        size = Math.min(size + growthRate * age * (age + dt) / (2 * dt), 1f);
+    }
+
     public void draw(GameCanvas canvas) {
         float width = tilemapParams.tileWidth() * textureSclInTiles;
         float height = tilemapParams.tileHeight() * textureSclInTiles;
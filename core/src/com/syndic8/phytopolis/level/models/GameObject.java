@@ -83,6 +83,14 @@ public abstract class GameObject extends Model {
      * A cache value for when the user wants to access the drawing scale
      */
     protected Vector2 scaleCache = new Vector2();
+    /**
+     * The body position before the most recent physics step
+     */
+    protected Vector2 previousPosition = new Vector2();
+    /**
+     * The interpolated position to draw at
+     */
+    protected Vector2 drawPosition = new Vector2();
     /**
      * A tag for debugging purposes
      */
@@ -127,6 +135,8 @@ public abstract class GameObject extends Model {
 
         origin = new Vector2();
         body = null;
+        previousPosition.set(x, y);
+        drawPosition.set(x, y);
     }
 
     /**
@@ -181,6 +191,7 @@ public abstract class GameObject extends Model {
         } else {
             bodyinfo.position.set(value);
         }
+        previousPosition.set(value);
     }
 
     /**
@@ -281,8 +292,8 @@ public abstract class GameObject extends Model {
                         Color.WHITE,
                         origin.x,
                         origin.y,
-                        getX(),
-                        getY(),
+                        getDrawX(),
+                        getDrawY(),
                         getAngle(),
                         sclX,
                         sclY);
@@ -326,6 +337,46 @@ public abstract class GameObject extends Model {
         } else {
             bodyinfo.position.set(x, y);
         }
+        previousPosition.set(x, y);
+    }
+
+    /**
+     * Records the current position as the start of the next tick.
+     * <p>
+     * Called just before every physics step.
+     */
+    public void storePreviousPosition() {
+        previousPosition.set(getX(), getY());
+    }
+
+    /**
+     * Sets the drawing position between the last two ticks.
+     *
+     * @param alpha Fraction of a tick since the last one (0 to 1)
+     */
+    public void interpolate(float alpha) {
+        drawPosition.set(previousPosition.x +
+                                 (getX() - previousPosition.x) * alpha,
+                         previousPosition.y +
+                                 (getY() - previousPosition.y) * alpha);
+    }
+
+    /**
+     * Returns the interpolated x-coordinate to draw this body at
+     *
+     * @return the interpolated x-coordinate to draw this body at
+     */
+    public float getDrawX() {
+        return drawPosition.x;
+    }
+
+    /**
+     * Returns the interpolated y-coordinate to draw this body at
+     *
+     * @return the interpolated y-coordinate to draw this body at
+     */
+    public float getDrawY() {
+        return drawPosition.y;
     }
 
     /**
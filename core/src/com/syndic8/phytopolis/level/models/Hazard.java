@@ -3,12 +3,13 @@ package com.syndic8.phytopolis.level.models;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
 import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.util.Tilemap;
 
 public abstract class Hazard extends BoxObject {
 
-    private final int maxTimer;
+    private int maxTimer;
     /**
      * The current location (index-wise) of the hazard.
      */
@@ -17,7 +18,21 @@ public abstract class Hazard extends BoxObject {
      * Time until trigger event
      */
     private int timer;
+    /**
+     * The plant grid cell holding this hazard, -1 if none. Kept up to date by
+     * the PlantController.
+     */
+    private int nodeCell = -1;
     private TextureRegion prevTexture;
+    /**
+     * Whether this hazard goes back to a pool once removed, keeping its body
+     * parked inactive instead of destroying it.
+     */
+    private boolean pooled;
+    /**
+     * Whether the world let go of this pooled hazard, so it can be reused.
+     */
+    private boolean parked;
 
     /**
      * Creates a hazard object.
@@ -52,6 +67,80 @@ public abstract class Hazard extends BoxObject {
         this.location = location;
     }
 
+    public int getNodeCell() {
+        return nodeCell;
+    }
+
+    public void setNodeCell(int cell) {
+        nodeCell = cell;
+    }
+
+    /**
+     * Readies a pooled hazard to be placed again, as if it were new.
+     *
+     * @param pos   the position of the hazard, in world coordinates.
+     * @param x     x-index of the node.
+     * @param y     y-index of the node.
+     * @param timer the time until the trigger event.
+     */
+    public void reuse(Vector2 pos, int x, int y, int timer) {
+        setPosition(pos);
+        setLinearVelocity(Vector2.Zero);
+        location.set(x, y);
+        this.timer = timer;
+        maxTimer = timer;
+        nodeCell = -1;
+        prevTexture = null;
+        animFrame = 0;
+        pooled = false;
+        parked = false;
+        markRemoved(false);
+    }
+
+    /**
+     * Marks this hazard to go back to a pool once the world lets go of it.
+     */
+    public void setPooled() {
+        pooled = true;
+    }
+
+    /**
+     * @return whether the world let go of this pooled hazard
+     */
+    public boolean isParked() {
+        return parked;
+    }
+
+    /**
+     * Wakes up the parked body of a reused hazard, if it has one, instead of
+     * making a new one.
+     *
+     * @param world Box2D world that stores body
+     * @return true if object allocation succeeded
+     */
+    @Override
+    public boolean activatePhysics(World world) {
+        if (body == null) return super.activatePhysics(world);
+        setActive(true);
+        return true;
+    }
+
+    /**
+     * Parks the body of a pooled hazard inactive, keeping it for reuse, or
+     * destroys it otherwise.
+     *
+     * @param world Box2D world that stores body
+     */
+    @Override
+    public void deactivatePhysics(World world) {
+        if (!pooled) {
+            super.deactivatePhysics(world);
+            return;
+        }
+        if (body != null) setActive(false);
+        parked = true;
+    }
+
     public int getMaxTimer() {
         return maxTimer;
     }
@@ -2,6 +2,8 @@ package com.syndic8.phytopolis.level.models;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.World;
 import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.InputController;
 import com.syndic8.phytopolis.util.FilmStrip;
@@ -38,6 +40,14 @@ public class Leaf extends BoxObject {
     private FilmStrip bounceTexture;
     private FilmStrip upgradeTexture;
     private boolean sun;
+    /**
+     * The shared row bodies to collide with, or null for a body of its own.
+     */
+    private LeafColliders colliders;
+    /**
+     * The fixture of this leaf on its row body, null if not active.
+     */
+    private Fixture collider;
 
     /**
      * enum containing possible leaf types
@@ -52,6 +62,7 @@ public class Leaf extends BoxObject {
      * @param width  width of the leaf
      * @param height height of the leaf
      * @param type
+     * @param ic     input controller, to bounce when the player jumps
      */
     public Leaf(float x,
                 float y,
@@ -59,7 +70,8 @@ public class Leaf extends BoxObject {
                 float height,
                 leafType type,
                 Tilemap.TilemapParams tmp,
-                float texScl) {
+                float texScl,
+                InputController ic) {
         super(x, y, width, height, tmp, texScl);
         bodyinfo.type = BodyDef.BodyType.StaticBody;
         this.type = type;
@@ -70,7 +82,7 @@ public class Leaf extends BoxObject {
         bounceFrame = 0;
         bouncy = false;
         sun = false;
-        ic = InputController.getInstance();
+        this.ic = ic;
     }
 
     @Override
@@ -90,6 +102,32 @@ public class Leaf extends BoxObject {
         textureSclInTiles = scl;
     }
 
+    /**
+     * Makes this leaf collide through a fixture on a shared row body instead
+     * of a body of its own. Must be set before the leaf is activated.
+     *
+     * @param value the leaf colliders of the plant.
+     */
+    public void setColliders(LeafColliders value) {
+        colliders = value;
+    }
+
+    @Override
+    public boolean activatePhysics(World world) {
+        if (colliders == null) return super.activatePhysics(world);
+        collider = colliders.add(world, this, fixture);
+        return true;
+    }
+
+    @Override
+    public void deactivatePhysics(World world) {
+        if (collider != null) {
+            colliders.remove(this, collider);
+            collider = null;
+        }
+        super.deactivatePhysics(world);
+    }
+
     public void setBounceTexture(FilmStrip value) {
         bounceTexture = value;
     }
@@ -106,6 +144,30 @@ public class Leaf extends BoxObject {
         beingEaten = value;
     }
 
+    public boolean isBeingEaten() {
+        return beingEaten;
+    }
+
+    public float getHealth() {
+        return health;
+    }
+
+    public int getHealthMark() {
+        return healthMark;
+    }
+
+    /**
+     * Sets the health of this leaf and the last whole health counted against
+     * the timer.
+     *
+     * @param health the health, from 5 down to 0 when fully eaten.
+     * @param mark   the health mark.
+     */
+    public void setHealth(float health, int mark) {
+        this.health = health;
+        healthMark = mark;
+    }
+
     public boolean healthBelowMark() {
         if (health < healthMark) {
             healthMark--;
@@ -208,17 +270,43 @@ public class Leaf extends BoxObject {
         float sclY = height / texture.getRegionHeight();
         float x = texture.getRegionWidth() / 2.0f;
         float y = texture.getRegionHeight() / 2.0f;
-        if (getLeafType() == leafType.BOUNCY) {
-            if (bouncyTimer <= 0) {
-                getFilmStrip().setFrame((int) bounceFrame);
-            } else {
-                getFilmStrip().setFrame((int) bounceFrame2);
-            }
+        getFilmStrip().setFrame(getDrawFrame());
+        canvas.draw(texture, Color.WHITE, x, y, getX(), getY(), 0, sclX, sclY);
+    }
 
-        } else {
-            getFilmStrip().setFrame((int) animFrame);
+    /**
+     * @return the filmstrip frame this leaf shows.
+     */
+    public int getDrawFrame() {
+        if (getLeafType() == leafType.BOUNCY) {
+            if (bouncyTimer <= 0) return (int) bounceFrame;
+            return (int) bounceFrame2;
         }
-        canvas.draw(texture, Color.WHITE, x, y, getX(), getY(), 0, sclX, sclY);
+        return (int) animFrame;
+    }
+
+    /**
+     * Writes the world corners of this leaf's sprite as x, y pairs, in
+     * sprite batch order: bottom left, top left, top right and bottom right.
+     * The sprite is centered on the leaf.
+     *
+     * @param quad the array of eight floats to write to.
+     */
+    public void computeQuad(float[] quad) {
+        float halfWidth = tilemapParams.tileWidth() * textureSclInTiles / 2;
+        float halfHeight = tilemapParams.tileHeight() * textureSclInTiles / 2;
+        float x0 = getX() - halfWidth;
+        float y0 = getY() - halfHeight;
+        float x1 = getX() + halfWidth;
+        float y1 = getY() + halfHeight;
+        quad[0] = x0;
+        quad[1] = y0;
+        quad[2] = x0;
+        quad[3] = y1;
+        quad[4] = x1;
+        quad[5] = y1;
+        quad[6] = x1;
+        quad[7] = y0;
     }
 
     /**
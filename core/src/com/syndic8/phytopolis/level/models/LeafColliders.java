@@ -0,0 +1,112 @@
+package com.syndic8.phytopolis.level.models;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Static colliders for the leaves of a plant, one body per row.
+ * <p>
+ * Leaves never move, so instead of a static body each, every leaf gets a
+ * box fixture on the shared body of its row, placed in world coordinates.
+ * The fixture's user data is the leaf, so contacts can still tell which
+ * leaf they touched. A row body is created with its first leaf and
+ * destroyed with its last.
+ */
+public class LeafColliders {
+
+    /**
+     * Definition of every row body: static, at the origin.
+     */
+    private final BodyDef rowDef = new BodyDef();
+    /**
+     * Shape of the fixture being created, reused for every leaf.
+     */
+    private final PolygonShape shape = new PolygonShape();
+    /**
+     * The body of every row with leaves, by row.
+     */
+    private final IntMap<Body> rows = new IntMap<>();
+    /**
+     * Cached vector for leaf centers.
+     */
+    private final Vector2 center = new Vector2();
+    /**
+     * Height of a row.
+     */
+    private final float rowHeight;
+    /**
+     * The world the row bodies live in.
+     */
+    private World world;
+
+    /**
+     * Creates leaf colliders with rows of the given height.
+     *
+     * @param rowHeight the height of a row, in world units.
+     */
+    public LeafColliders(float rowHeight) {
+        this.rowHeight = rowHeight;
+        rowDef.type = BodyDef.BodyType.StaticBody;
+    }
+
+    /**
+     * Adds a box fixture for the given leaf to the body of its row.
+     *
+     * @param world the world to collide in.
+     * @param leaf  the leaf.
+     * @param def   the fixture properties of the leaf; its shape is replaced.
+     * @return the new fixture
+     */
+    Fixture add(World world, Leaf leaf, FixtureDef def) {
+        if (world != this.world) {
+            // The bodies of the last world went with it
+            rows.clear();
+            this.world = world;
+        }
+        int row = rowOf(leaf);
+        Body body = rows.get(row);
+        if (body == null) {
+            body = world.createBody(rowDef);
+            rows.put(row, body);
+        }
+        center.set(leaf.getX(), leaf.getY());
+        shape.setAsBox(leaf.getWidth() / 2, leaf.getHeight() / 2, center, 0);
+        def.shape = shape;
+        Fixture fixture = body.createFixture(def);
+        fixture.setUserData(leaf);
+        return fixture;
+    }
+
+    /**
+     * Removes the fixture of the given leaf, and its row body if that was
+     * its last leaf.
+     *
+     * @param leaf    the leaf.
+     * @param fixture the fixture returned when the leaf was added.
+     */
+    void remove(Leaf leaf, Fixture fixture) {
+        Body body = fixture.getBody();
+        body.destroyFixture(fixture);
+        if (body.getFixtureList().isEmpty()) {
+            rows.remove(rowOf(leaf));
+            world.destroyBody(body);
+        }
+    }
+
+    /**
+     * Returns the row of the given leaf.
+     *
+     * @param leaf the leaf.
+     */
+    private int rowOf(Leaf leaf) {
+        return MathUtils.floor(leaf.getY() / rowHeight);
+    }
+
+}
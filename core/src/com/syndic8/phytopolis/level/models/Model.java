@@ -98,7 +98,7 @@ public abstract class Model {
     }
 
     public void setTexture(Texture texture) {
-        setFilmStrip(new FilmStrip(texture, 1, 1, 1));
+        setFilmStrip(texture == null ? null : new FilmStrip(texture, 1, 1, 1));
     }
 
     public FilmStrip getFilmStrip() {
@@ -107,6 +107,8 @@ public abstract class Model {
 
     public void setFilmStrip(FilmStrip animation) {
         texture = animation;
+        // Headless worlds have no textures to center on
+        if (texture == null) return;
         origin = new Vector2(texture.getRegionWidth() / 2.0f,
                              texture.getRegionHeight() / 2.0f);
     }
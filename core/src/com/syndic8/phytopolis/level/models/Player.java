@@ -17,6 +17,7 @@ public class Player extends CapsuleObject {
     private static final int NUM_JOG_FRAMES = 8;
     private static final int NUM_JUMP_UP_FRAMES = 6;
     private static final int NUM_JUMP_DOWN_FRAMES = 6;
+    private static final int NUM_JUMP_FRAMES = 13;
     private static final float ANIMATION_SPEED = 10f;
     private static final float ANIMATION_SPEED2 = 10f;
 
@@ -100,6 +101,7 @@ public class Player extends CapsuleObject {
     private boolean bouncy = false;
     private int bouncyTimer = 0;
     private int boingSound;
+    private SoundController soundController;
 
     /**
      * Creates a new dude avatar with the given physics data
@@ -222,7 +224,7 @@ public class Player extends CapsuleObject {
             } else {
                 animFrame += dt * ANIMATION_SPEED;
             }
-            if (animFrame >= jumpAnimator.getSize()) {
+            if (animFrame >= NUM_JUMP_FRAMES) {
                 animFrame = 0;
             }
         }
@@ -313,8 +315,8 @@ public class Player extends CapsuleObject {
                         Color.WHITE,
                         x,
                         y,
-                        getX(),
-                        getY(),
+                        getDrawX(),
+                        getDrawY(),
                         getAngle(),
                         sclX * effect,
                         sclY);
@@ -327,8 +329,8 @@ public class Player extends CapsuleObject {
                         Color.WHITE,
                         x,
                         y,
-                        getX(),
-                        getY(),
+                        getDrawX(),
+                        getDrawY(),
                         getAngle(),
                         sclX * effect,
                         sclY);
@@ -340,8 +342,8 @@ public class Player extends CapsuleObject {
                         Color.WHITE,
                         x,
                         y,
-                        getX() * drawScale.x,
-                        getY() * drawScale.y,
+                        getDrawX() * drawScale.x,
+                        getDrawY() * drawScale.y,
                         getAngle(),
                         sclX * effect,
                         sclY);
@@ -458,7 +460,7 @@ public class Player extends CapsuleObject {
         if (isJumping()) {
             if (bouncyTimer > 0) {
                 forceCache.set(0, jump_force * bouncyMultiplier);
-                SoundController.getInstance().playSound(boingSound);
+                soundController.playSound(boingSound);
             } else forceCache.set(0, jump_force);
             body.applyLinearImpulse(forceCache, getPosition(), true);
         }
@@ -517,7 +519,8 @@ public class Player extends CapsuleObject {
         return ModelType.PLAYER;
     }
 
-    public void setBoingSound(int bs) {
+    public void setBoingSound(SoundController sc, int bs) {
+        soundController = sc;
         boingSound = bs;
     }
 
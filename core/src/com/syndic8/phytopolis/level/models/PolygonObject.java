@@ -40,9 +40,11 @@ import com.syndic8.phytopolis.util.Tilemap;
 public class PolygonObject extends GameObject {
 
     /**
-     * An earclipping triangular to make sure we work with convex shapes
+     * An earclipping triangular to make sure we work with convex shapes.
+     * It keeps scratch state, so each thread simulating a world has its own.
      */
-    private static final EarClippingTriangulator TRIANGULATOR = new EarClippingTriangulator();
+    private static final ThreadLocal<EarClippingTriangulator> TRIANGULATOR = ThreadLocal.withInitial(
+            EarClippingTriangulator::new);
 
     /**
      * Shape information for this physics object
@@ -131,7 +133,7 @@ public class PolygonObject extends GameObject {
      */
     private void initShapes(float[] points) {
         // Triangulate
-        ShortArray array = TRIANGULATOR.computeTriangles(points);
+        ShortArray array = TRIANGULATOR.get().computeTriangles(points);
         trimColinear(points, array);
 
         tridx = new short[array.items.length];
@@ -46,6 +46,8 @@ public class Sun extends Resource {
     }
 
     public void update(float dt, boolean belowLeaf) {
+        setVX(0);
+        setVY(-0.5f);
         if (maxLeafHeight == -1 && belowLeaf) {
             startFade(getY());
         }
@@ -74,8 +76,6 @@ public class Sun extends Resource {
     }
 
     public void draw(GameCanvas canvas) {
-        setVX(0);
-        setVY(-0.5f);
         float sclX = width / sunCircle.getWidth();
         float sclY = height / sunCircle.getHeight();
         if (maxLeafHeight != -1) {
@@ -89,8 +89,8 @@ public class Sun extends Resource {
                     color,
                     origin.x,
                     origin.y,
-                    getX(),
-                    getY(),
+                    getDrawX(),
+                    getDrawY(),
                     getAngle() + angle,
                     sclX,
                     sclY);
@@ -98,8 +98,8 @@ public class Sun extends Resource {
                     color,
                     origin.x,
                     origin.y,
-                    getX(),
-                    getY(),
+                    getDrawX(),
+                    getDrawY(),
                     getAngle() + angle,
                     sclX,
                     sclY);
@@ -107,8 +107,8 @@ public class Sun extends Resource {
                     color,
                     origin.x,
                     origin.y,
-                    getX(),
-                    getY(),
+                    getDrawX(),
+                    getDrawY(),
                     getAngle() - angle,
                     sclX,
                     sclY);
@@ -5,14 +5,21 @@ import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.util.FilmStrip;
 import com.syndic8.phytopolis.util.Tilemap;
+import com.syndic8.phytopolis.util.TimingWheel;
 
 public class Water extends Resource {
 
     private static final float REGEN_DELAY = 0.1f;
     private static final int MAX_REGEN = 100;
     private final FilmStrip waterFilmstrip;
-    private int currRegen;
-    private float currDelay;
+    /**
+     * The clock the water refills by.
+     */
+    private TimingWheel clock;
+    /**
+     * Time the water was last taken, on the clock.
+     */
+    private double clearedAt = Double.NEGATIVE_INFINITY;
     private float animFrame;
 
     public Water(float x,
@@ -23,28 +30,33 @@ public class Water extends Resource {
                  Tilemap.TilemapParams tmp,
                  float texScl) {
         super(x, y, w, h, tmp, texScl);
-        currRegen = MAX_REGEN;
-        currDelay = 0;
         bodyinfo.type = BodyDef.BodyType.StaticBody;
         waterFilmstrip = wf;
         setFilmStrip(wf);
         animFrame = 13;
     }
 
-    public void clear() {
-        currRegen = 0;
-        currDelay = 0;
+    /**
+     * Sets the clock the water refills by. The water starts full.
+     *
+     * @param clock the timing wheel of the world.
+     */
+    public void setClock(TimingWheel clock) {
+        this.clock = clock;
+        clearedAt = Double.NEGATIVE_INFINITY;
     }
 
-    public void regenerate(float dt) {
-        if (currRegen < MAX_REGEN) {
-            currDelay += dt;
-            if (currDelay >= REGEN_DELAY) {
-                currDelay -= REGEN_DELAY;
-                currRegen++;
+    public void clear() {
+        clearedAt = clock.getTime();
+    }
 
-            }
-        }
+    /**
+     * Returns how many steps the water has refilled by since it was last
+     * taken. The steps follow from the clock, so nothing has to count them.
+     */
+    private int getRegen() {
+        double regen = (clock.getTime() - clearedAt) / REGEN_DELAY;
+        return (int) Math.min(regen, MAX_REGEN);
     }
 
     @Override
@@ -53,6 +65,7 @@ public class Water extends Resource {
     }
 
     public void update(float dt) {
+        if (waterFilmstrip == null) return;
         if (isFull()) {
             animFrame += dt * 5;
             if (animFrame >= 26) {
@@ -66,11 +79,11 @@ public class Water extends Resource {
     }
 
     public boolean isFull() {
-        return currRegen == MAX_REGEN;
+        return getRegen() == MAX_REGEN;
     }
 
     public float getRegenRatio() {
-        return (float) currRegen / MAX_REGEN;
+        return (float) getRegen() / MAX_REGEN;
     }
 
     public void draw(GameCanvas canvas) {
@@ -90,7 +90,14 @@ public abstract class FadingScreen {
     }
 
     public float getVolume() {
-        return volume * SoundController.getInstance().getUserMusicVolume();
+        return volume * getSoundController().getUserMusicVolume();
+    }
+
+    /**
+     * @return the sound controller whose user volume this screen fades.
+     */
+    protected SoundController getSoundController() {
+        return SoundController.getInstance();
     }
 
     protected boolean isFadeDone() {
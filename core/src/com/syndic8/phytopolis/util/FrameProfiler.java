@@ -0,0 +1,248 @@
+package com.syndic8.phytopolis.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.syndic8.phytopolis.GameCanvas;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures how long each phase of a frame takes.
+ * <p>
+ * Phases are timed with System.nanoTime between begin and end, summed over
+ * every tick of a frame, and kept in a rolling window of the last
+ * WINDOW_SIZE frames. Nothing is timed until recording is turned on, which
+ * happens the first time the overlay is shown.
+ */
+public class FrameProfiler {
+
+    /**
+     * Number of frames kept for the rolling statistics.
+     */
+    private static final int WINDOW_SIZE = 300;
+    /**
+     * Number of frames between overlay text refreshes.
+     */
+    private static final int REFRESH_FRAMES = 15;
+    /**
+     * Scale of the UI font that fits a line into HUD units.
+     */
+    private static final float FONT_SCALE = 0.0035f;
+    /**
+     * Margin between the overlay and the edge of the screen, in HUD units.
+     */
+    private static final float MARGIN = 0.2f;
+    private static final float NANOS_PER_MILLI = 1e6f;
+    /**
+     * Start time of each phase, or -1 if the phase is not running.
+     */
+    private final long[] starts;
+    /**
+     * Time spent in each phase during the current frame.
+     */
+    private final long[] pending;
+    /**
+     * Rolling window of frame times, indexed by phase and then frame.
+     */
+    private final long[][] samples;
+    /**
+     * Scratch buffer for computing percentiles.
+     */
+    private final long[] sorted;
+    private final StringBuilder text;
+    /**
+     * Number of frames recorded, including those that left the window.
+     */
+    private long frames;
+    private boolean recording;
+    private boolean visible;
+    private BitmapFont font;
+
+    public FrameProfiler() {
+        int phases = Phase.values().length;
+        starts = new long[phases];
+        pending = new long[phases];
+        samples = new long[phases][WINDOW_SIZE];
+        sorted = new long[WINDOW_SIZE];
+        text = new StringBuilder();
+        Arrays.fill(starts, -1);
+    }
+
+    /**
+     * Starts timing the given phase.
+     *
+     * @param phase the phase to time.
+     */
+    public void begin(Phase phase) {
+        if (!recording) return;
+        starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Stops timing the given phase, adding the elapsed time to this frame.
+     *
+     * @param phase the phase to time.
+     */
+    public void end(Phase phase) {
+        if (!recording) return;
+        int i = phase.ordinal();
+        if (starts[i] == -1) return;
+        pending[i] += System.nanoTime() - starts[i];
+        starts[i] = -1;
+    }
+
+    /**
+     * Pushes the times of the current frame into the rolling window.
+     */
+    public void endFrame() {
+        if (!recording) return;
+        int slot = (int) (frames % WINDOW_SIZE);
+        for (int i = 0; i < pending.length; i++) {
+            samples[i][slot] = pending[i];
+            pending[i] = 0;
+        }
+        frames++;
+        if (visible && frames % REFRESH_FRAMES == 0) refreshText();
+    }
+
+    /**
+     * Shows or hides the overlay, starting the recording if needed.
+     */
+    public void toggle() {
+        visible = !visible;
+        if (visible) {
+            recording = true;
+            refreshText();
+        }
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public void setRecording(boolean value) {
+        recording = value;
+    }
+
+    /**
+     * @return whether any frames have been recorded.
+     */
+    public boolean hasSamples() {
+        return frames > 0;
+    }
+
+    /**
+     * Draws the overlay in the top left corner of the HUD.
+     *
+     * @param canvas the canvas to draw to.
+     */
+    public void draw(GameCanvas canvas) {
+        if (!visible) return;
+        if (font == null) {
+            font = SharedAssetContainer.getInstance().getUIFont(FONT_SCALE);
+            font.setUseIntegerPositions(false);
+        }
+        canvas.beginHud();
+        canvas.drawHudText(font,
+                           text,
+                           MARGIN,
+                           GameCanvas.STANDARD_HEIGHT - MARGIN);
+        canvas.endHud();
+    }
+
+    /**
+     * Writes the rolling statistics of every phase as CSV, in milliseconds.
+     *
+     * @param file the file to write to.
+     */
+    public void dump(FileHandle file) {
+        StringBuilder csv = new StringBuilder("phase,frames,min,avg,p99,max\n");
+        for (Phase phase : Phase.values()) {
+            int n = sortWindow(phase);
+            csv.append(phase.name().toLowerCase(Locale.ROOT))
+                    .append(',')
+                    .append(n)
+                    .append(',')
+                    .append(millis(sorted[0]))
+                    .append(',')
+                    .append(millis(average(n)))
+                    .append(',')
+                    .append(millis(percentile(n, 0.99f)))
+                    .append(',')
+                    .append(millis(sorted[Math.max(n - 1, 0)]))
+                    .append('\n');
+        }
+        file.writeString(csv.toString(), false);
+    }
+
+    /**
+     * Rebuilds the overlay text from the rolling window.
+     */
+    private void refreshText() {
+        text.setLength(0);
+        text.append("phase      min   avg   p99 (ms)");
+        for (Phase phase : Phase.values()) {
+            int n = sortWindow(phase);
+            text.append('\n')
+                    .append(String.format(Locale.ROOT,
+                                          "%-8s %5.2f %5.2f %5.2f",
+                                          phase.name().toLowerCase(Locale.ROOT),
+                                          millis(sorted[0]),
+                                          millis(average(n)),
+                                          millis(percentile(n, 0.99f))));
+        }
+    }
+
+    /**
+     * Copies the window of the given phase into the scratch buffer, sorted.
+     *
+     * @param phase the phase to sort.
+     * @return the number of frames in the window
+     */
+    private int sortWindow(Phase phase) {
+        int n = (int) Math.min(frames, WINDOW_SIZE);
+        System.arraycopy(samples[phase.ordinal()], 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+        if (n == 0) sorted[0] = 0;
+        return n;
+    }
+
+    private long average(int n) {
+        if (n == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += sorted[i];
+        }
+        return sum / n;
+    }
+
+    private long percentile(int n, float p) {
+        if (n == 0) return 0;
+        return sorted[Math.min(n - 1, (int) Math.ceil(p * n) - 1)];
+    }
+
+    private float millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * The timed parts of a frame.
+     * <p>
+     * Update phases are summed over all ticks simulated in a frame.
+     */
+    public enum Phase {
+        FRAME,
+        UPDATE,
+        HAZARDS,
+        PLANT,
+        PHYSICS,
+        UI,
+        DRAW
+    }
+
+}
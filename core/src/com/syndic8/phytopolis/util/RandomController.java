@@ -1,13 +1,13 @@
 /*
  * RandomController.java
  *
- * Static controller class for producing random numbers.
+ * Controller class for producing random numbers.
  *
- * Just about every part of the game needs random numbers.  If we were to
- * make this in instance class, we would have references littered throughout
- * our code.  Forunately, we usually only need one random number generator,
- * so it can be a singleton.  Once again, we have implemented the
- * singleton as a static class.
+ * Just about every part of the game needs random numbers.  Sharing a single
+ * generator makes every subsystem depend on the order in which the others
+ * draw from it, and ties all worlds to one thread.  Instead, each world owns
+ * a root stream and hands every subsystem its own stream split from it, so
+ * a run is reproducible from its seed alone.
  *
  * Author: Walker M. White
  * Based on original PhysicsDemo Lab by Don Holden, 2007
@@ -15,18 +15,79 @@
  */
 package com.syndic8.phytopolis.util;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
- * Static class for producing random numbers.
+ * A stream of random numbers, confined to a single world and thread.
  */
 public class RandomController {
 
+    /**
+     * Seed for worlds that were not given one
+     */
+    public static final long DEFAULT_SEED = 347; // Make it deterministic
     /**
      * Pseudo-random number generator
      */
-    public static final Random generator = new Random(347); // Make it
-    // deterministic
+    private SplittableRandom generator;
+
+    /**
+     * Creates a new stream with the given seed.
+     *
+     * @param seed the seed of the stream.
+     */
+    public RandomController(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Restarts this stream from the given seed.
+     *
+     * @param seed the seed of the stream.
+     */
+    public void setSeed(long seed) {
+        generator = new SplittableRandom(seed);
+    }
+
+    /**
+     * Restarts this stream as a new split of the given stream.
+     * <p>
+     * The parent advances, so restarting several streams from the same
+     * parent in a fixed order gives each of them independent numbers.
+     *
+     * @param parent the stream to split from.
+     */
+    public void splitFrom(RandomController parent) {
+        generator = parent.generator.split();
+    }
+
+    /**
+     * Returns a new stream split from this one.
+     *
+     * @return a new independent stream
+     */
+    public RandomController split() {
+        RandomController child = new RandomController(0);
+        child.splitFrom(this);
+        return child;
+    }
+
+    /**
+     * Returns a random int between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound Upper bound of the random range
+     * @return a random int between 0 (inclusive) and bound (exclusive).
+     */
+    public int nextInt(int bound) {
+        return generator.nextInt(bound);
+    }
+
+    /**
+     * @return a random long.
+     */
+    public long nextLong() {
+        return generator.nextLong();
+    }
 
     /**
      * Returns a random int between min and max (inclusive).
@@ -35,7 +96,7 @@ public class RandomController {
      * @param max Maximum value in random range
      * @return a random int between min and max (inclusive).
      */
-    public static int rollInt(int min, int max) {
+    public int rollInt(int min, int max) {
         return generator.nextInt(max - min + 1) + min;
     }
 
@@ -46,8 +107,8 @@ public class RandomController {
      * @param max Maximum value in random range
      * @return a random float between min and max (inclusive).
      */
-    public static float rollFloat(float min, float max) {
-        return generator.nextFloat() * (max - min) + min;
+    public float rollFloat(float min, float max) {
+        return (float) generator.nextDouble() * (max - min) + min;
     }
 
 }
@@ -3,6 +3,7 @@ package com.syndic8.phytopolis.util;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.JsonValue;
 import com.syndic8.phytopolis.GameCanvas;
 import com.syndic8.phytopolis.WorldController;
@@ -11,6 +12,7 @@ import com.syndic8.phytopolis.level.models.Tile;
 import com.syndic8.phytopolis.level.models.Water;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Tilemap {
@@ -19,8 +21,8 @@ public class Tilemap {
     private static final String RESOURCES_TILESET = "rsrc.tsx";
     private static final String HAZARDS_TILESET = "hazards.tsx";
     private final GameCanvas canvas;
-    private final PooledList<Float> powerlineYVals;
-    private final PooledList<Float> bugYVals;
+    private final FloatArray powerlineYVals;
+    private final FloatArray bugYVals;
     PooledList<Tile> tiles;
     AssetDirectory directory;
     JsonValue tilemap;
@@ -40,6 +42,18 @@ public class Tilemap {
     private Texture sunSwirl;
     private String backgroundFile;
     private Texture victoryLine;
+    private JsonValue physicsTileset;
+    private JsonValue resourcesTileset;
+    private JsonValue hazardsTileset;
+    /**
+     * Collider bounds of every physics tile as x0, y0, x1, y1, indexed by
+     * row * tilemapWidth + col; NaN where the tile has no collider.
+     */
+    private float[] colliderBounds;
+    /**
+     * Whether this tilemap skips all textures
+     */
+    private boolean headless;
 
     /**
      * Constructs a tilemap from the world dimensions and a JSON file from
@@ -51,8 +65,8 @@ public class Tilemap {
     public Tilemap(JsonValue tm, GameCanvas c) {
         tilemap = tm;
         canvas = c;
-        powerlineYVals = new PooledList<>();
-        bugYVals = new PooledList<>();
+        powerlineYVals = new FloatArray();
+        bugYVals = new FloatArray();
     }
 
     public float getWorldHeight() {
@@ -97,6 +111,52 @@ public class Tilemap {
      * @param dir The main assets directory.
      */
     public void gatherAssets(AssetDirectory dir) {
+        gatherLayout();
+        directory = dir;
+        headless = false;
+        physicsTileset = directory.getEntry(PHYSICS_TILESET, JsonValue.class);
+        resourcesTileset = directory.getEntry(RESOURCES_TILESET,
+                                              JsonValue.class);
+        hazardsTileset = directory.getEntry(HAZARDS_TILESET, JsonValue.class);
+        sunCircle = directory.getEntry("gameplay:sun_circle", Texture.class);
+        sunSwirl = directory.getEntry("gameplay:sun_swirl", Texture.class);
+        sunRay = directory.getEntry("gameplay:sun_ray", Texture.class);
+
+        List<Texture> resourceTextureList = new ArrayList<>();
+        Texture tx = directory.getEntry("gameplay:water_filmstrip",
+                                        Texture.class);
+        Texture tx2 = directory.getEntry("gameplay:sun_resource",
+                                         Texture.class);
+        victoryLine = directory.getEntry("gameplay:victoryline", Texture.class);
+        resourceTextureList.add(tx);
+        resourceTextureList.add(tx2);
+        resourceTextures = resourceTextureList.toArray(new Texture[0]);
+    }
+
+    /**
+     * Gathers the tilesets without loading any textures.
+     * <p>
+     * Used by headless simulations. A headless tilemap can be populated but
+     * must never be drawn.
+     *
+     * @param physics   the physics tileset JSON.
+     * @param resources the resources tileset JSON.
+     * @param hazards   the hazards tileset JSON.
+     */
+    public void gatherHeadless(JsonValue physics,
+                               JsonValue resources,
+                               JsonValue hazards) {
+        gatherLayout();
+        headless = true;
+        physicsTileset = physics;
+        resourcesTileset = resources;
+        hazardsTileset = hazards;
+    }
+
+    /**
+     * Reads the dimensions and properties of the level.
+     */
+    private void gatherLayout() {
         JsonValue layersJson = tilemap.get("layers");
         JsonValue physicsLayer = null;
         for (JsonValue layerJson : layersJson) {
@@ -113,7 +173,10 @@ public class Tilemap {
         // it will mess with the physics. It won't mess with the
         // scaling because that is taken care of automatically
         // by the viewport.
-        worldWidth = canvas.getWidth() * tilemapWidth / 6f;
+        float canvasWidth = canvas == null ?
+                GameCanvas.STANDARD_WIDTH :
+                canvas.getWidth();
+        worldWidth = canvasWidth * tilemapWidth / 6f;
         // This 3f / 2f reflects the aspect ratio of our tiles,
         // which are 600px wide by 400px tall. In theory, any
         // tileset with that same aspect ratio should work.
@@ -121,7 +184,6 @@ public class Tilemap {
                 tilemap.getFloat("height");
         tileHeight = worldHeight / tilemapHeight;
         tileWidth = worldWidth / tilemapWidth;
-        directory = dir;
 
         JsonValue propertiesJson = tilemap.get("properties");
         for (JsonValue propertyJson : propertiesJson) {
@@ -136,19 +198,6 @@ public class Tilemap {
             else if (propertyJson.getString("name").equals("background"))
                 backgroundFile = propertyJson.getString("value");
         }
-        sunCircle = directory.getEntry("gameplay:sun_circle", Texture.class);
-        sunSwirl = directory.getEntry("gameplay:sun_swirl", Texture.class);
-        sunRay = directory.getEntry("gameplay:sun_ray", Texture.class);
-
-        List<Texture> resourceTextureList = new ArrayList<>();
-        Texture tx = directory.getEntry("gameplay:water_filmstrip",
-                                        Texture.class);
-        Texture tx2 = directory.getEntry("gameplay:sun_resource",
-                                         Texture.class);
-        victoryLine = directory.getEntry("gameplay:victoryline", Texture.class);
-        resourceTextureList.add(tx);
-        resourceTextureList.add(tx2);
-        resourceTextures = resourceTextureList.toArray(new Texture[0]);
     }
 
     /**
@@ -178,17 +227,18 @@ public class Tilemap {
                     .getString("source")
                     .equals(PHYSICS_TILESET)) break;
         }
-        JsonValue tilesetJson = directory.getEntry(PHYSICS_TILESET,
-                                                   JsonValue.class);
+        JsonValue tilesetJson = physicsTileset;
         float tilePixelWidth = tilesetJson.getFloat("tilewidth");
         float tilePixelHeight = tilesetJson.getFloat("tileheight");
         JsonValue tilesJson = tilesetJson.get("tiles");
         tiles = new PooledList<>();
+        int[] data = physicsLayer.get("data").asIntArray();
+        colliderBounds = new float[4 * tilemapWidth * tilemapHeight];
+        Arrays.fill(colliderBounds, Float.NaN);
 
         for (int row = 0; row < tilemapHeight; row++) {
             for (int col = 0; col < tilemapWidth; col++) {
-                int tileValue = physicsLayer.get("data").asIntArray()[
-                        row * tilemapWidth + col];
+                int tileValue = data[row * tilemapWidth + col];
                 if (tileValue != 0) {
                     float x0 = col * tileWidth;
                     float x1 = (col + 1) * tileWidth;
@@ -203,8 +253,10 @@ public class Tilemap {
                             tileJson = indivTileJson;
                     }
                     assert tileJson != null;
-                    Texture tx = new Texture(
-                            "gameplay/tiles/" + tileJson.getString("image"));
+                    Texture tx = headless ?
+                            null :
+                            new Texture("gameplay/tiles/" +
+                                                tileJson.getString("image"));
                     boolean hasCollider = tileJson.has("objectgroup");
                     boolean collideTop = tileJson.get("properties")
                             .get(0)
@@ -235,6 +287,11 @@ public class Tilemap {
                                 cy1,
                                 cx1,
                                 cy0});
+                        int b = 4 * (row * tilemapWidth + col);
+                        colliderBounds[b] = cx0;
+                        colliderBounds[b + 1] = cy0;
+                        colliderBounds[b + 2] = cx1;
+                        colliderBounds[b + 3] = cy1;
                         ctrl.addObject(tile.getCollider());
                         tile.fixColliderUserData();
                     }
@@ -244,6 +301,42 @@ public class Tilemap {
         }
     }
 
+    /**
+     * Returns whether the given box touches the collider of any physics
+     * tile, edges included.
+     * <p>
+     * Only the tiles under the box are checked, so this is cheap enough to
+     * call for every plant node. The level must have been populated.
+     *
+     * @param x0 the left edge of the box.
+     * @param y0 the bottom edge of the box.
+     * @param x1 the right edge of the box.
+     * @param y1 the top edge of the box.
+     * @return true if the box touches a tile collider
+     */
+    public boolean overlapsCollider(float x0, float y0, float x1, float y1) {
+        // Widen the search by a tile in case a collider spills over its tile
+        int col0 = Math.max(0, (int) Math.floor(x0 / tileWidth) - 1);
+        int col1 = Math.min(tilemapWidth - 1,
+                            (int) Math.floor(x1 / tileWidth) + 1);
+        int row0 = Math.max(0,
+                            (int) Math.floor((worldHeight - y1) / tileHeight) -
+                                    1);
+        int row1 = Math.min(tilemapHeight - 1,
+                            (int) Math.floor((worldHeight - y0) / tileHeight) +
+                                    1);
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                int b = 4 * (row * tilemapWidth + col);
+                // NaN bounds fail every comparison, so empty tiles never hit
+                if (colliderBounds[b] <= x1 && x0 <= colliderBounds[b + 2] &&
+                        colliderBounds[b + 1] <= y1 &&
+                        y0 <= colliderBounds[b + 3]) return true;
+            }
+        }
+        return false;
+    }
+
     private void populateResources(WorldController ctrl) {
         JsonValue layersJson = tilemap.get("layers");
         JsonValue resourceLayer = null;
@@ -259,8 +352,7 @@ public class Tilemap {
                     .getString("source")
                     .equals(RESOURCES_TILESET)) break;
         }
-        JsonValue tilesetJson = directory.getEntry(RESOURCES_TILESET,
-                                                   JsonValue.class);
+        JsonValue tilesetJson = resourcesTileset;
         JsonValue tilesJson = tilesetJson.get("tiles");
         int numTimes = 0;
         for (int row = 0; row < tilemapHeight; row++) {
@@ -277,10 +369,9 @@ public class Tilemap {
                             .get(0)
                             .getString("value")
                             .equals("water")) {
-                        FilmStrip waterFilmstrip = new FilmStrip(
-                                resourceTextures[0],
-                                1,
-                                26);
+                        FilmStrip waterFilmstrip = headless ?
+                                null :
+                                new FilmStrip(resourceTextures[0], 1, 26);
                         Water w = new Water(xMid,
                                             yMid,
                                             tileWidth,
@@ -310,8 +401,7 @@ public class Tilemap {
                     .getString("source")
                     .equals(HAZARDS_TILESET)) break;
         }
-        JsonValue tilesetJson = directory.getEntry(HAZARDS_TILESET,
-                                                   JsonValue.class);
+        JsonValue tilesetJson = hazardsTileset;
         JsonValue tilesJson = tilesetJson.get("tiles");
 
         for (int row = 0; row < tilemapHeight; row++) {
@@ -325,8 +415,10 @@ public class Tilemap {
                     float y1 = worldHeight - row * tileHeight;
                     JsonValue tileJson = tilesJson.get(tileValue - tilemap.get(
                             "tilesets").get(i).getInt("firstgid"));
-                    Texture tx = new Texture(
-                            "gameplay/tiles/" + tileJson.getString("image"));
+                    Texture tx = headless ?
+                            null :
+                            new Texture("gameplay/tiles/" +
+                                                tileJson.getString("image"));
                     Tile tile = new Tile(getTilemapParams(),
                                          new Vector2(x0, y0),
                                          false,
@@ -384,11 +476,11 @@ public class Tilemap {
         for (Tile tile : tiles) tile.draw(c);
     }
 
-    public PooledList<Float> getPowerlineYVals() {
+    public FloatArray getPowerlineYVals() {
         return powerlineYVals;
     }
 
-    public PooledList<Float> getBugYVals() {
+    public FloatArray getBugYVals() {
         return bugYVals;
     }
 
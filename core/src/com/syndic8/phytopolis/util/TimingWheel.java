@@ -0,0 +1,309 @@
+package com.syndic8.phytopolis.util;
+
+/**
+ * A hierarchical timing wheel, driven by simulated time.
+ * <p>
+ * Time is cut into quanta of a fixed resolution. Tasks due within the next
+ * 64 quanta hang from the 64 slots of the first level; later ones hang from
+ * coarser levels, 64 times coarser each, and move down a level whenever the
+ * finer level wraps around. Scheduling and cancelling take constant time,
+ * and advancing only visits the slots it passes. Since the wheel only moves
+ * when the simulation steps it, timers stop while paused, follow any change
+ * of speed, and come out the same on every run with the same steps.
+ */
+public class TimingWheel {
+
+    /**
+     * Bits of the slot index in each level.
+     */
+    private static final int SLOT_BITS = 6;
+    /**
+     * Number of slots in each level.
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+    /**
+     * Mask of the slot index in each level.
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+    /**
+     * Number of levels. Tasks further away than the last level reaches wait
+     * in its furthest slot and are placed again when it comes around.
+     */
+    private static final int LEVELS = 4;
+    /**
+     * Slot of a task taken out of its slot to be run, but not run yet.
+     */
+    private static final int DUE = -2;
+    /**
+     * The first task of every slot, by level and slot.
+     */
+    private final Task[] slots = new Task[LEVELS * SLOTS];
+    /**
+     * Length of a quantum, in seconds.
+     */
+    private final double resolution;
+    /**
+     * Tasks taken out of the current slot, reused by every advance.
+     */
+    private Task[] due = new Task[16];
+    /**
+     * Simulated time, in seconds.
+     */
+    private double now;
+    /**
+     * The last quantum whose slot was run.
+     */
+    private long current;
+
+    /**
+     * Creates an empty timing wheel at time zero.
+     *
+     * @param resolution the length of a quantum, in seconds.
+     */
+    public TimingWheel(float resolution) {
+        this.resolution = resolution;
+    }
+
+    /**
+     * @return the simulated time, in seconds.
+     */
+    public double getTime() {
+        return now;
+    }
+
+    /**
+     * Cancels every task and sets the time back to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            while (slots[i] != null) {
+                unlink(slots[i]);
+            }
+        }
+        now = 0;
+        current = 0;
+    }
+
+    /**
+     * Schedules the given task to run once after the given delay, replacing
+     * any earlier schedule of it.
+     *
+     * @param task  the task.
+     * @param delay the delay, in seconds.
+     */
+    public void schedule(Task task, float delay) {
+        scheduleAt(task, now + delay);
+    }
+
+    /**
+     * Schedules the given task to run again the given period after it was
+     * last due. Unlike scheduling it after the period, this does not drift
+     * by the time the last run was late.
+     *
+     * @param task   the task.
+     * @param period the period, in seconds.
+     */
+    public void repeat(Task task, float period) {
+        scheduleAt(task, task.deadline + period);
+    }
+
+    /**
+     * Cancels the given task, if scheduled.
+     *
+     * @param task the task.
+     */
+    public void cancel(Task task) {
+        if (task.slot >= 0) unlink(task);
+        else task.slot = -1;
+    }
+
+    /**
+     * Advances the simulated time, running every task that comes due in
+     * order of their quanta.
+     *
+     * @param dt the simulated time elapsed, in seconds.
+     */
+    public void advance(float dt) {
+        now += dt;
+        long target = (long) Math.floor(now / resolution);
+        runDue();
+        while (current < target) {
+            current++;
+            cascade();
+            runDue();
+        }
+    }
+
+    /**
+     * Schedules the given task to run once at the given time.
+     *
+     * @param task     the task.
+     * @param deadline the time, in seconds.
+     */
+    private void scheduleAt(Task task, double deadline) {
+        cancel(task);
+        task.deadline = deadline;
+        place(task);
+    }
+
+    /**
+     * Hangs a task from the slot of its quantum, at the finest level that
+     * reaches it.
+     *
+     * @param task the task, not scheduled.
+     */
+    private void place(Task task) {
+        long quantum = Math.max((long) Math.floor(task.deadline / resolution),
+                                current);
+        long delta = quantum - current;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // Too far away; wait in the last slot to be reached
+            quantum = current + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int slot = (int) (quantum >>> (SLOT_BITS * level)) & SLOT_MASK;
+        link(task, level * SLOTS + slot);
+    }
+
+    /**
+     * Moves the tasks of every coarser slot that the current quantum just
+     * entered down to finer levels.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((current & ((1L << (SLOT_BITS * level)) - 1)) != 0) return;
+            int slot = (int) (current >>> (SLOT_BITS * level)) & SLOT_MASK;
+            Task task = detach(level * SLOTS + slot);
+            while (task != null) {
+                Task next = task.next;
+                task.next = null;
+                place(task);
+                task = next;
+            }
+        }
+    }
+
+    /**
+     * Runs every task of the current quantum that is due by now. The rest
+     * stay for the next advance. Tasks are taken out of the slot first, so
+     * that running one may cancel or schedule any other.
+     */
+    private void runDue() {
+        int count = 0;
+        Task task = detach((int) current & SLOT_MASK);
+        while (task != null) {
+            if (count == due.length) {
+                Task[] grown = new Task[due.length * 2];
+                System.arraycopy(due, 0, grown, 0, count);
+                due = grown;
+            }
+            due[count++] = task;
+            Task next = task.next;
+            task.next = null;
+            task.slot = DUE;
+            task = next;
+        }
+        for (int i = 0; i < count; i++) {
+            task = due[i];
+            due[i] = null;
+            // Cancelled or scheduled again by an earlier task
+            if (task.slot != DUE) continue;
+            task.slot = -1;
+            if (task.deadline <= now) {
+                task.action.run();
+            } else {
+                place(task);
+            }
+        }
+    }
+
+    /**
+     * Adds a task to the front of a slot.
+     *
+     * @param task  the task, not scheduled.
+     * @param index the index of the slot.
+     */
+    private void link(Task task, int index) {
+        task.slot = index;
+        task.prev = null;
+        task.next = slots[index];
+        if (task.next != null) task.next.prev = task;
+        slots[index] = task;
+    }
+
+    /**
+     * Removes a task from its slot.
+     *
+     * @param task the task, scheduled.
+     */
+    private void unlink(Task task) {
+        if (task.prev != null) task.prev.next = task.next;
+        else slots[task.slot] = task.next;
+        if (task.next != null) task.next.prev = task.prev;
+        task.prev = null;
+        task.next = null;
+        task.slot = -1;
+    }
+
+    /**
+     * Empties a slot, returning its tasks as a list linked by next, all
+     * marked unscheduled.
+     *
+     * @param index the index of the slot.
+     * @return the first task, null if none
+     */
+    private Task detach(int index) {
+        Task first = slots[index];
+        slots[index] = null;
+        for (Task t = first; t != null; t = t.next) {
+            t.prev = null;
+            t.slot = -1;
+        }
+        return first;
+    }
+
+    /**
+     * An action that can be scheduled on a timing wheel, at most once at a
+     * time. Tasks are made once and scheduled again as needed, so the wheel
+     * allocates nothing.
+     */
+    public static class Task {
+
+        /**
+         * What to do when due.
+         */
+        private final Runnable action;
+        /**
+         * Time the task is due, in seconds.
+         */
+        private double deadline;
+        /**
+         * Index of the slot holding this task, -1 if not scheduled, DUE if
+         * about to run.
+         */
+        private int slot = -1;
+        private Task prev;
+        private Task next;
+
+        /**
+         * Creates a task, not scheduled.
+         *
+         * @param action what to do when due.
+         */
+        public Task(Runnable action) {
+            this.action = action;
+        }
+
+        /**
+         * @return whether this task is waiting to run.
+         */
+        public boolean isScheduled() {
+            return slot != -1;
+        }
+
+    }
+
+}
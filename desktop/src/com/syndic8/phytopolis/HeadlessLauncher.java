@@ -0,0 +1,75 @@
+package com.syndic8.phytopolis;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launcher class for headless simulation.
+ * <p>
+ * Usage: HeadlessLauncher [level key] [max ticks], or HeadlessLauncher
+ * --replay [replay file] to play back a recorded attempt, or
+ * HeadlessLauncher --batch [level key] [runs] [threads] [max ticks] to
+ * simulate many seeds of a level in parallel. The working directory must be
+ * the assets folder, as with the desktop launcher.
+ */
+public class HeadlessLauncher {
+
+    public static void main(String[] arg) {
+        if (arg.length > 1 && arg[0].equals("--replay")) {
+            replay(arg[1]);
+            return;
+        }
+        if (arg.length > 1 && arg[0].equals("--batch")) {
+            batch(arg);
+            return;
+        }
+        String level = arg.length > 0 ? arg[0] : "gameplay:lvl1";
+        int maxTicks = arg.length > 1 ? Integer.parseInt(arg[1]) : 60 * 60;
+        HeadlessSimulation sim = new HeadlessSimulation(new FileHandle(new File(
+                ".")), level);
+        long start = System.nanoTime();
+        HeadlessSimulation.Outcome outcome = sim.run(null,
+                                                     HeadlessSimulation.DEFAULT_DT,
+                                                     maxTicks);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %s after %d ticks (%.2fs simulated) in %.1fms%n",
+                          level,
+                          outcome,
+                          sim.getTicks(),
+                          sim.getSimulatedTime(),
+                          elapsed / 1e6);
+    }
+
+    private static void batch(String[] arg) {
+        String level = arg[1];
+        int runs = arg.length > 2 ? Integer.parseInt(arg[2]) : 64;
+        int threads = arg.length > 3 ?
+                Integer.parseInt(arg[3]) :
+                Runtime.getRuntime().availableProcessors();
+        int maxTicks = arg.length > 4 ? Integer.parseInt(arg[4]) : 60 * 60;
+        List<BatchSimulation.Run> batch = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            batch.add(new BatchSimulation.Run(level, i, maxTicks, null));
+        }
+        BatchSimulation sim = new BatchSimulation(new FileHandle(new File(".")),
+                                                  threads);
+        System.out.println(sim.run(batch));
+    }
+
+    private static void replay(String path) {
+        long start = System.nanoTime();
+        HeadlessSimulation sim = InputReplay.play(new FileHandle(new File(".")),
+                                                  new FileHandle(new File(path)));
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %s after %d ticks (%.2fs simulated) in %.1fms%n",
+                          path,
+                          sim.getOutcome(),
+                          sim.getTicks(),
+                          sim.getSimulatedTime(),
+                          elapsed / 1e6);
+    }
+
+}